@@ -0,0 +1,62 @@
+package com.github.bjansen.ssv.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.bjansen.ssv.SwaggerValidator;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the validation of {@code format: byte} values of increasing sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class Base64Benchmark {
+
+    /**
+     * Size of the decoded value, in bytes.
+     */
+    @Param({"1024", "65536", "1048576", "20971520"})
+    public int size;
+
+    private SwaggerValidator validator;
+
+    private JsonNode payload;
+
+    @Setup
+    public void setUp() {
+        ObjectNode spec = JsonNodeFactory.instance.objectNode();
+        spec.putObject("definitions").putObject("File").put("type", "string").put("format", "byte");
+        validator = SwaggerValidator.forJsonNode(spec, Collections.emptyMap());
+
+        byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        payload = JsonNodeFactory.instance.textNode(Base64.getEncoder().encodeToString(bytes));
+    }
+
+    @Benchmark
+    public ProcessingReport validate() throws ProcessingException {
+        return validator.validate(payload, "/definitions/File");
+    }
+}
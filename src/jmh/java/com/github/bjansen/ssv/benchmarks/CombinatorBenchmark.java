@@ -0,0 +1,78 @@
+package com.github.bjansen.ssv.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.bjansen.ssv.SwaggerValidator;
+import com.github.bjansen.ssv.SwaggerValidatorConfiguration;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the validation of a payload matching the last branch of an {@code x-anyOf} or {@code x-oneOf} with
+ * many branches.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CombinatorBenchmark {
+
+    @Param({"x-anyOf", "x-oneOf"})
+    public String keyword;
+
+    @Param({"false", "true"})
+    public boolean shortCircuit;
+
+    @Param({"false", "true"})
+    public boolean adaptive;
+
+    @Param({"20"})
+    public int branches;
+
+    private SwaggerValidator validator;
+
+    private JsonNode payload;
+
+    @Setup
+    public void setUp() {
+        ObjectNode spec = JsonNodeFactory.instance.objectNode();
+        ArrayNode branchArray = spec.putObject("definitions").putObject("Event").putArray(keyword);
+
+        for (int i = 0; i < branches; i++) {
+            ObjectNode branch = branchArray.addObject();
+            branch.put("type", "object").putArray("required").add("field" + i);
+            branch.putObject("properties").putObject("field" + i).put("type", "integer");
+        }
+
+        SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+            .setShortCircuitCombinators(shortCircuit)
+            .setAdaptiveBranchOrdering(adaptive)
+            .freeze();
+        validator = SwaggerValidator.forJsonNode(spec, Collections.emptyMap(), configuration);
+
+        payload = JsonNodeFactory.instance.objectNode().put("field" + (branches - 1), 42);
+    }
+
+    @Benchmark
+    public ProcessingReport validate() throws ProcessingException {
+        return validator.validate(payload, "/definitions/Event");
+    }
+}
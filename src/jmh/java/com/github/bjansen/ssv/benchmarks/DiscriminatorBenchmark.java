@@ -0,0 +1,96 @@
+package com.github.bjansen.ssv.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.bjansen.ssv.SwaggerValidator;
+import com.github.bjansen.ssv.SwaggerValidatorConfiguration;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the validation of a polymorphic payload against a definition with many subtypes, selected either
+ * by an {@code x-oneOf} or by a {@code discriminator}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DiscriminatorBenchmark {
+
+    @Param({"false", "true"})
+    public boolean discriminatorDispatch;
+
+    /**
+     * Number of subtypes.
+     */
+    @Param({"5", "50"})
+    public int subtypes;
+
+    private SwaggerValidator validator;
+
+    private JsonNode payload;
+
+    private String definition;
+
+    @Setup
+    public void setUp() {
+        ObjectNode spec = JsonNodeFactory.instance.objectNode();
+        ObjectNode definitions = spec.putObject("definitions");
+
+        ObjectNode base = definitions.putObject("Event");
+        base.put("type", "object").putArray("required").add("kind");
+        base.putObject("properties").putObject("kind").put("type", "string");
+
+        ObjectNode polymorphic = definitions.putObject("AnyEvent");
+        ArrayNode oneOf = polymorphic.putArray("x-oneOf");
+
+        for (int i = 0; i < subtypes; i++) {
+            ArrayNode allOf = definitions.putObject("Event" + i).putArray("x-allOf");
+            allOf.addObject().put("$ref", "#/definitions/Event");
+            ObjectNode own = allOf.addObject();
+            own.putArray("required").add("field" + i);
+            own.putObject("properties").putObject("field" + i).put("type", "integer");
+            oneOf.addObject().put("$ref", "#/definitions/Event" + i);
+        }
+
+        if (discriminatorDispatch) {
+            base.put("discriminator", "kind");
+            definition = "/definitions/Event";
+        } else {
+            definition = "/definitions/AnyEvent";
+        }
+
+        SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+            .setDiscriminatorDispatch(discriminatorDispatch)
+            .freeze();
+        validator = SwaggerValidator.forJsonNode(spec, Collections.emptyMap(), configuration);
+
+        ObjectNode event = JsonNodeFactory.instance.objectNode();
+        event.put("kind", "Event" + (subtypes - 1));
+        event.put("field" + (subtypes - 1), 42);
+        payload = event;
+    }
+
+    @Benchmark
+    public ProcessingReport validate() throws ProcessingException {
+        return validator.validate(payload, definition);
+    }
+}
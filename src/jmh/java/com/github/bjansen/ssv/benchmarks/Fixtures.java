@@ -0,0 +1,122 @@
+package com.github.bjansen.ssv.benchmarks;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.bjansen.ssv.SwaggerValidator;
+import com.github.bjansen.ssv.SwaggerValidatorConfiguration;
+import com.google.common.io.CharStreams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Specs used by the benchmarks.
+ *
+ * <p>Specs are either test fixtures (like {@code deepCheck/spec.yaml}), or synthetic specs named
+ * {@code synthetic-<number of models>}. Synthetic specs define the following models:</p>
+ * <ul>
+ *     <li>{@code Item}, an object with a few constrained properties</li>
+ *     <li>{@code Order}, which contains an array of {@code Item}s</li>
+ *     <li>{@code Node}, a recursive tree of nodes</li>
+ *     <li>{@code Model0} to {@code ModelN}, copies of {@code Item} each referencing the next one, and using
+ *     {@code x-} keywords</li>
+ * </ul>
+ */
+final class Fixtures {
+
+    private static final JsonNodeFactory FACTORY = JsonNodeFactory.instance;
+
+    private static final String SYNTHETIC = "synthetic-";
+
+    private Fixtures() {
+        throw new IllegalStateException();
+    }
+
+    /**
+     * @param spec the path to a test fixture, or the name of a synthetic spec
+     * @return the spec, as text
+     */
+    static String specText(String spec) {
+        if (spec.startsWith(SYNTHETIC)) {
+            return syntheticSpec(Integer.parseInt(spec.substring(SYNTHETIC.length()))).toString();
+        }
+
+        InputStream stream = Fixtures.class.getResourceAsStream("/" + spec);
+        if (stream == null) {
+            throw new IllegalArgumentException("Unknown spec " + spec);
+        }
+        try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+            return CharStreams.toString(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static SwaggerValidator validator(String spec, String text, SwaggerValidatorConfiguration configuration)
+        throws IOException {
+        return spec.endsWith(".yaml")
+            ? SwaggerValidator.forYamlSchema(new StringReader(text), configuration)
+            : SwaggerValidator.forJsonSchema(new StringReader(text), configuration);
+    }
+
+    static ObjectNode syntheticSpec(int models) {
+        ObjectNode spec = FACTORY.objectNode();
+        spec.put("swagger", "2.0");
+        spec.putObject("info").put("title", "Synthetic").put("version", "1");
+        spec.putObject("paths");
+
+        ObjectNode definitions = spec.putObject("definitions");
+        definitions.set("Item", item());
+
+        ObjectNode order = definitions.putObject("Order");
+        order.put("type", "object");
+        order.putArray("required").add("items");
+        ObjectNode orderProperties = order.putObject("properties");
+        orderProperties.putObject("id").put("type", "string");
+        orderProperties.putObject("items")
+            .put("type", "array")
+            .putObject("items").put("$ref", "#/definitions/Item");
+
+        ObjectNode node = definitions.putObject("Node");
+        node.put("type", "object");
+        ObjectNode nodeProperties = node.putObject("properties");
+        nodeProperties.putObject("value").put("type", "string");
+        nodeProperties.putObject("children")
+            .put("type", "array")
+            .putObject("items").put("$ref", "#/definitions/Node");
+
+        for (int i = 0; i < models; i++) {
+            ObjectNode model = item();
+            ((ObjectNode) model.get("properties")).putObject("next")
+                .put("$ref", "#/definitions/Model" + ((i + 1) % models));
+            ArrayNode anyOf = model.putArray("x-anyOf");
+            anyOf.addObject().putArray("required").add("price");
+            anyOf.addObject().putObject("x-not").putArray("required").add("status");
+            definitions.set("Model" + i, model);
+        }
+
+        return spec;
+    }
+
+    private static ObjectNode item() {
+        ObjectNode item = FACTORY.objectNode();
+        item.put("type", "object");
+        item.putArray("required").add("id").add("name");
+
+        ObjectNode properties = item.putObject("properties");
+        properties.putObject("id").put("type", "integer").put("format", "int64");
+        properties.putObject("name").put("type", "string").put("minLength", 1).put("maxLength", 64);
+        properties.putObject("price").put("type", "number").put("minimum", 0);
+        properties.putObject("tags").put("type", "array").putObject("items").put("type", "string");
+        properties.putObject("status").put("type", "string")
+            .putArray("enum").add("available").add("pending").add("sold");
+
+        return item;
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.bjansen.ssv.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.bjansen.ssv.SwaggerValidator;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the validation of a small payload against an already compiled definition, for specs of
+ * increasing sizes. The cost should not depend on the size of the spec.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int models;
+
+    private SwaggerValidator validator;
+
+    private JsonNode payload;
+
+    @Setup
+    public void setUp() throws ProcessingException {
+        validator = SwaggerValidator.forJsonNode(Fixtures.syntheticSpec(models), Collections.emptyMap());
+        payload = Payload.SMALL.build();
+        validator.validate(payload, "/definitions/Item");
+    }
+
+    @Benchmark
+    public ProcessingReport validate() throws ProcessingException {
+        return validator.validate(payload, "/definitions/Item");
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.bjansen.ssv.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.bjansen.ssv.SwaggerValidator;
+import com.github.bjansen.ssv.SwaggerValidatorConfiguration;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the validation of objects whose properties are constrained by {@code pattern} and
+ * {@code x-patternProperties}, with the JavaScript engine and with {@link java.util.regex}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PatternBenchmark {
+
+    @Param({"false", "true"})
+    public boolean javaRegex;
+
+    @Param({"false", "true"})
+    public boolean fastValidation;
+
+    /**
+     * Number of properties of the payload.
+     */
+    @Param({"10", "100"})
+    public int properties;
+
+    private SwaggerValidator validator;
+
+    private JsonNode payload;
+
+    @Setup
+    public void setUp() {
+        ObjectNode spec = JsonNodeFactory.instance.objectNode();
+        ObjectNode headers = spec.putObject("definitions").putObject("Headers");
+        headers.put("type", "object").put("additionalProperties", false);
+        headers.putObject("properties").putObject("id").put("type", "string").put("pattern", "^[0-9a-f]{8}$");
+        headers.putObject("x-patternProperties").putObject("^x-[a-z-]+$")
+            .put("type", "string").put("pattern", "^[\\w.:/-]+$");
+
+        SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+            .setJavaRegex(javaRegex)
+            .setFastValidation(fastValidation)
+            .freeze();
+        validator = SwaggerValidator.forJsonNode(spec, Collections.emptyMap(), configuration);
+
+        ObjectNode object = JsonNodeFactory.instance.objectNode();
+        object.put("id", "0badcafe");
+        for (int i = 1; i < properties; i++) {
+            object.put("x-header-" + (char) ('a' + i % 26), "https://example.com/" + i);
+        }
+        payload = object;
+    }
+
+    @Benchmark
+    public ProcessingReport validate() throws ProcessingException {
+        return validator.validate(payload, "/definitions/Headers");
+    }
+}
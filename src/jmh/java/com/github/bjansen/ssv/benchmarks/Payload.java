@@ -0,0 +1,102 @@
+package com.github.bjansen.ssv.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.swagger.util.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Payloads for the synthetic specs.
+ */
+public enum Payload {
+    /**
+     * A single {@code Item}.
+     */
+    SMALL("/definitions/Item") {
+        @Override
+        JsonNode build() {
+            return item(1);
+        }
+    },
+    /**
+     * An {@code Order} of 10,000 {@code Item}s.
+     */
+    LARGE("/definitions/Order") {
+        @Override
+        JsonNode build() {
+            return order(10_000);
+        }
+    },
+    /**
+     * Same as {@link #LARGE}, but the first item is invalid.
+     */
+    LARGE_INVALID("/definitions/Order") {
+        @Override
+        JsonNode build() {
+            ObjectNode order = order(10_000);
+            ((ObjectNode) order.get("items").get(0)).put("id", "zero");
+            return order;
+        }
+    },
+    /**
+     * A 64 levels deep tree of {@code Node}s.
+     */
+    NESTED("/definitions/Node") {
+        @Override
+        JsonNode build() {
+            ObjectNode root = FACTORY.objectNode().put("value", "0");
+            ObjectNode node = root;
+            for (int i = 1; i < 64; i++) {
+                ObjectNode child = FACTORY.objectNode().put("value", String.valueOf(i));
+                node.putArray("children").add(child).add(FACTORY.objectNode().put("value", "leaf"));
+                node = child;
+            }
+            return root;
+        }
+    };
+
+    private static final JsonNodeFactory FACTORY = JsonNodeFactory.instance;
+
+    private final String definitionPointer;
+
+    Payload(String definitionPointer) {
+        this.definitionPointer = definitionPointer;
+    }
+
+    String getDefinitionPointer() {
+        return definitionPointer;
+    }
+
+    abstract JsonNode build();
+
+    byte[] buildBytes() {
+        try {
+            return Json.mapper().writeValueAsBytes(build());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ObjectNode item(int id) {
+        ObjectNode item = FACTORY.objectNode();
+        item.put("id", id);
+        item.put("name", "Item #" + id);
+        item.put("price", id * 1.5);
+        item.putArray("tags").add("new").add("popular");
+        item.put("status", "available");
+        return item;
+    }
+
+    private static ObjectNode order(int items) {
+        ObjectNode order = FACTORY.objectNode().put("id", "order-1");
+        ArrayNode array = order.putArray("items");
+        for (int i = 0; i < items; i++) {
+            array.add(item(i));
+        }
+        return order;
+    }
+}
@@ -0,0 +1,83 @@
+package com.github.bjansen.ssv.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.bjansen.ssv.SwaggerValidator;
+import com.github.bjansen.ssv.SwaggerValidatorConfiguration;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reloading a spec in which a single definition changed with building and precompiling a new validator.
+ * Both benchmarks end with all the definitions compiled.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReloadBenchmark {
+
+    @Param({"synthetic-100", "synthetic-1000", "synthetic-5000"})
+    public String spec;
+
+    @Param({"false", "true"})
+    public boolean fast;
+
+    private SwaggerValidatorConfiguration configuration;
+
+    /**
+     * Two versions of the spec, that only differ by the type of {@code Order.id}.
+     */
+    private final JsonNode[] versions = new JsonNode[2];
+
+    private SwaggerValidator validator;
+
+    private int next;
+
+    @Setup
+    public void loadSpec() throws ProcessingException {
+        configuration = SwaggerValidatorConfiguration.newBuilder().setFastValidation(fast).freeze();
+
+        int models = Integer.parseInt(spec.substring(spec.indexOf('-') + 1));
+        for (int i = 0; i < versions.length; i++) {
+            ObjectNode version = Fixtures.syntheticSpec(models);
+            ((ObjectNode) version.at("/definitions/Order/properties/id")).put("type", i == 0 ? "string" : "integer");
+            versions[i] = version;
+        }
+
+        validator = SwaggerValidator.forJsonNode(versions[0], Collections.emptyMap(), configuration);
+        validator.precompile();
+        next = 1;
+    }
+
+    @Benchmark
+    public Map<String, Duration> reload() throws ProcessingException {
+        JsonNode version = versions[next];
+        next = 1 - next;
+        return validator.precompile(validator.reload(version), Runnable::run);
+    }
+
+    @Benchmark
+    public Map<String, Duration> rebuild() throws ProcessingException {
+        JsonNode version = versions[next];
+        next = 1 - next;
+        return SwaggerValidator.forJsonNode(version, Collections.emptyMap(), configuration).precompile();
+    }
+}
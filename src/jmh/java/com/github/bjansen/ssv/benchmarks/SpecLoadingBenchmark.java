@@ -0,0 +1,97 @@
+package com.github.bjansen.ssv.benchmarks;
+
+import com.github.bjansen.ssv.SwaggerValidator;
+import com.github.bjansen.ssv.SwaggerValidatorConfiguration;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the creation of validators, and the compilation of all their definitions, sequentially or using the
+ * common fork-join pool.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpecLoadingBenchmark {
+
+    @Param({
+        "allOf/spec.yaml",
+        "oneOf/spec.yaml",
+        "deepCheck/spec.yaml",
+        "references/spec-issue14.json",
+        "synthetic-100",
+        "synthetic-1000",
+        "synthetic-5000"
+    })
+    public String spec;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private String text;
+
+    private SwaggerValidatorConfiguration configuration;
+
+    @Setup
+    public void loadSpec() {
+        text = Fixtures.specText(spec);
+        configuration = SwaggerValidatorConfiguration.newBuilder()
+            .setExecutor(parallel ? ForkJoinPool.commonPool() : null)
+            .freeze();
+    }
+
+    @Benchmark
+    public SwaggerValidator load() throws IOException {
+        return Fixtures.validator(spec, text, configuration);
+    }
+
+    @Benchmark
+    public Map<String, Duration> precompile(FreshValidator fresh) throws ProcessingException {
+        return fresh.validator.precompile();
+    }
+
+    /**
+     * Only compiles the definitions used by the spec. Synthetic specs have no paths, so this measures the cost
+     * of the definition graph alone for them.
+     */
+    @Benchmark
+    public Map<String, Duration> precompileReachable(FreshValidator fresh) throws ProcessingException {
+        SwaggerValidator validator = fresh.validator;
+        return validator.precompile(validator.getDefinitionGraph().getReachableDefinitions(),
+            parallel ? ForkJoinPool.commonPool() : Runnable::run);
+    }
+
+    /**
+     * A validator that didn't compile anything yet.
+     */
+    @State(Scope.Thread)
+    public static class FreshValidator {
+
+        private SwaggerValidator validator;
+
+        @Setup(Level.Invocation)
+        public void createValidator(SpecLoadingBenchmark benchmark) throws IOException {
+            validator = Fixtures.validator(benchmark.spec, benchmark.text, benchmark.configuration);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.bjansen.ssv.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.bjansen.ssv.DefinitionValidator;
+import com.github.bjansen.ssv.SwaggerValidator;
+import com.github.bjansen.ssv.SwaggerValidatorConfiguration;
+import com.github.bjansen.ssv.ValidationResult;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the validation of payloads of various shapes, with or without the native engine. Allocations
+ * can be measured with {@code -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"SMALL", "LARGE", "LARGE_INVALID", "NESTED"})
+    public Payload payload;
+
+    @Param({"false", "true"})
+    public boolean fastValidation;
+
+    private SwaggerValidator validator;
+
+    private DefinitionValidator definitionValidator;
+
+    private String definitionPointer;
+
+    private JsonNode node;
+
+    private String text;
+
+    private byte[] bytes;
+
+    private List<JsonNode> batch;
+
+    @Setup
+    public void setUp() throws IOException, ProcessingException {
+        SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+            .setFastValidation(fastValidation)
+            .freeze();
+        validator = SwaggerValidator.forJsonNode(Fixtures.syntheticSpec(10), Collections.emptyMap(), configuration);
+        validator.precompile();
+
+        definitionPointer = payload.getDefinitionPointer();
+        definitionValidator = validator.forDefinition(definitionPointer);
+        node = payload.build();
+        bytes = payload.buildBytes();
+        text = new String(bytes, StandardCharsets.UTF_8);
+        batch = Collections.nCopies(BATCH_SIZE, node);
+    }
+
+    @Benchmark
+    public ProcessingReport validateNode() throws ProcessingException {
+        return validator.validate(node, definitionPointer);
+    }
+
+    @Benchmark
+    public ProcessingReport validateWithDefinitionValidator() throws ProcessingException {
+        return definitionValidator.validate(node);
+    }
+
+    @Benchmark
+    public ProcessingReport validateNodeDeepCheck() throws ProcessingException {
+        return validator.validate(node, definitionPointer, true);
+    }
+
+    @Benchmark
+    public boolean isValid() throws ProcessingException {
+        return validator.isValid(node, definitionPointer);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<ValidationResult> validateAll() throws ProcessingException {
+        return validator.validateAll(batch, definitionPointer);
+    }
+
+    @Benchmark
+    public ProcessingReport validateString() throws ProcessingException, IOException {
+        return validator.validate(text, definitionPointer);
+    }
+
+    @Benchmark
+    public ProcessingReport validateBytes() throws ProcessingException, IOException {
+        return validator.validate(bytes, definitionPointer);
+    }
+}
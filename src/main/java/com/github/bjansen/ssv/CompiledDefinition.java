@@ -0,0 +1,219 @@
+package com.github.bjansen.ssv;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.BooleanNode;
+import com.fasterxml.jackson.databind.node.DoubleNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.github.fge.jackson.NodeType;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.processing.Processor;
+import com.github.fge.jsonschema.core.report.ListProcessingReport;
+import com.github.fge.jsonschema.core.report.LogLevel;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.core.tree.SchemaTree;
+import com.github.fge.jsonschema.core.tree.SimpleJsonTree;
+import com.github.fge.jsonschema.exceptions.InvalidInstanceException;
+import com.github.fge.jsonschema.processors.data.FullData;
+
+/**
+ * A definition compiled by the fge engine, and optionally by the {@link FastSchemaCompiler}.
+ */
+final class CompiledDefinition {
+
+    private final String definitionPointer;
+
+    private final Processor<FullData, FullData> processor;
+
+    private final SchemaTree schema;
+
+    private final FastSchema fastSchema;
+
+    private final ValidationListener listener;
+
+    /**
+     * @param definitionPointer the pointer to the definition in the spec
+     * @param processor         the validation processor of the fge engine
+     * @param schema            the definition, as loaded by the fge engine
+     * @param fastSchema        the definition compiled to native validators, or {@code null} if not available
+     * @param listener          notified of each validation
+     */
+    CompiledDefinition(String definitionPointer, Processor<FullData, FullData> processor, SchemaTree schema,
+                       FastSchema fastSchema, ValidationListener listener) {
+        this.definitionPointer = definitionPointer;
+        this.processor = processor;
+        this.schema = schema;
+        this.fastSchema = fastSchema;
+        this.listener = listener;
+    }
+
+    /**
+     * @param schema the same definition, loaded from another spec
+     * @return this definition bound to {@code schema}, with the same native validators
+     */
+    CompiledDefinition withSchema(SchemaTree schema) {
+        return new CompiledDefinition(definitionPointer, processor, schema, fastSchema, listener);
+    }
+
+    SchemaTree getSchema() {
+        return schema;
+    }
+
+    boolean isFast() {
+        return fastSchema != null;
+    }
+
+    ProcessingReport validate(JsonNode instance, boolean deepCheck) throws ProcessingException {
+        if (listener == ValidationListener.NONE) {
+            return doValidate(instance, deepCheck);
+        }
+
+        long start = System.nanoTime();
+        ProcessingReport report = doValidate(instance, deepCheck);
+        listener.onValidation(definitionPointer, System.nanoTime() - start, report.isSuccess());
+        return report;
+    }
+
+    boolean isValid(JsonNode instance) throws ProcessingException {
+        if (listener == ValidationListener.NONE) {
+            return doIsValid(instance);
+        }
+
+        long start = System.nanoTime();
+        boolean valid = doIsValid(instance);
+        listener.onValidation(definitionPointer, System.nanoTime() - start, valid);
+        return valid;
+    }
+
+    /**
+     * @return the first error of the report {@link #validate(JsonNode, boolean)} would return, or {@code null} if
+     * {@code instance} is valid
+     */
+    ProcessingMessage firstError(JsonNode instance) throws ProcessingException {
+        if (listener == ValidationListener.NONE) {
+            return doFirstError(instance);
+        }
+
+        long start = System.nanoTime();
+        ProcessingMessage error = doFirstError(instance);
+        listener.onValidation(definitionPointer, System.nanoTime() - start, error == null);
+        return error;
+    }
+
+    private ProcessingReport doValidate(JsonNode instance, boolean deepCheck) throws ProcessingException {
+        if (fastSchema != null && fastSchema.validate(instance) == FastSchema.Result.VALID) {
+            // Same as the (empty) report the fge engine would have built
+            return new ListProcessingReport(LogLevel.INFO, LogLevel.FATAL);
+        }
+
+        // Let the fge engine describe what's wrong
+        return validate(new ListProcessingReport(LogLevel.INFO, LogLevel.FATAL), instance, deepCheck);
+    }
+
+    private boolean doIsValid(JsonNode instance) throws ProcessingException {
+        if (fastSchema != null) {
+            return fastSchema.validate(instance) != FastSchema.Result.INVALID;
+        }
+
+        // Nothing is logged, and the first error aborts the validation
+        ProcessingReport report = new ListProcessingReport(LogLevel.NONE, LogLevel.ERROR);
+
+        try {
+            return validate(report, instance, false).isSuccess();
+        } catch (InvalidInstanceException e) {
+            return false;
+        }
+    }
+
+    private ProcessingMessage doFirstError(JsonNode instance) throws ProcessingException {
+        if (fastSchema != null && fastSchema.validate(instance) == FastSchema.Result.VALID) {
+            return null;
+        }
+
+        // Subschemas log their messages, which combinators include in their own error, but the first error
+        // aborts the validation
+        ProcessingReport report = new ListProcessingReport(LogLevel.INFO, LogLevel.ERROR);
+
+        try {
+            validate(report, instance, false);
+        } catch (InvalidInstanceException e) {
+            // Raised as fatal by the fge engine, but logged as an error in full reports
+            return e.getProcessingMessage().setLogLevel(LogLevel.ERROR);
+        }
+
+        return null;
+    }
+
+    /**
+     * Validates an empty sample of each instance type allowed by the {@code type} of the definition (or of every
+     * type, if it has none) against the definition. This makes the fge engine check the syntax of the whole
+     * definition, and build the validators of the top-level keywords that apply to each of these types, like
+     * {@code required} and {@code additionalProperties} for objects. Both are then cached by its processor.
+     * Nested schemas, and the definitions they reference, are only reached, and their validators built, by
+     * payloads that contain them.
+     */
+    void precompile() throws ProcessingException {
+        JsonNode type = schema.getNode().path("type");
+        boolean validated = false;
+
+        for (NodeType nodeType : NodeType.values()) {
+            if (allows(type, nodeType)) {
+                validate(new ListProcessingReport(LogLevel.INFO, LogLevel.FATAL), sample(nodeType), false);
+                validated = true;
+            }
+        }
+        if (!validated) {
+            validate(new ListProcessingReport(LogLevel.INFO, LogLevel.FATAL), NullNode.getInstance(), false);
+        }
+    }
+
+    private static boolean allows(JsonNode type, NodeType nodeType) {
+        if (type.isTextual()) {
+            return allows(type.textValue(), nodeType);
+        }
+        if (type.isArray()) {
+            for (JsonNode element : type) {
+                if (element.isTextual() && allows(element.textValue(), nodeType)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean allows(String type, NodeType nodeType) {
+        return type.equals(nodeType.toString()) || type.equals("number") && nodeType == NodeType.INTEGER;
+    }
+
+    /**
+     * @return an instance of the given type, as small as possible
+     */
+    private static JsonNode sample(NodeType nodeType) {
+        switch (nodeType) {
+            case ARRAY:
+                return JsonNodeFactory.instance.arrayNode();
+            case BOOLEAN:
+                return BooleanNode.FALSE;
+            case INTEGER:
+                return IntNode.valueOf(0);
+            case NUMBER:
+                return DoubleNode.valueOf(0.5);
+            case OBJECT:
+                return JsonNodeFactory.instance.objectNode();
+            case STRING:
+                return TextNode.valueOf("");
+            default:
+                return NullNode.getInstance();
+        }
+    }
+
+    private ProcessingReport validate(ProcessingReport report, JsonNode instance, boolean deepCheck)
+        throws ProcessingException {
+        processor.process(report, new FullData(schema, new SimpleJsonTree(instance), deepCheck));
+        return report;
+    }
+}
@@ -0,0 +1,356 @@
+package com.github.bjansen.ssv;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jackson.jsonpointer.JsonPointer;
+
+import java.util.AbstractMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The references between the definitions of a spec, computed once when the spec is loaded.
+ *
+ * <p>Definitions are identified by their pointer, for example {@code /definitions/User}. A definition depends on
+ * another one if it contains a {@code $ref} to it, or to one of its subschemas. Definitions referenced from
+ * outside the {@code definitions} section (by paths, parameters or responses) are the roots of the graph; the
+ * other definitions are only reachable through them, if at all.</p>
+ *
+ * <p>Instances are immutable.</p>
+ */
+public final class DefinitionGraph {
+
+    private static final String DEFINITIONS = "definitions";
+
+    /**
+     * Direct dependencies of each definition, in the spec order.
+     */
+    private final Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+
+    private final Set<String> roots = new LinkedHashSet<>();
+
+    private final Set<String> reachable;
+
+    /**
+     * Strongly connected components, dependencies first.
+     */
+    private final List<Set<String>> components;
+
+    private final Set<String> recursive = new LinkedHashSet<>();
+
+    /**
+     * Definitions holding local references that don't target a definition of the spec.
+     */
+    private final Set<String> externalReferrers = new LinkedHashSet<>();
+
+    private DefinitionGraph(JsonNode spec) {
+        Iterator<String> definitions = spec.path(DEFINITIONS).fieldNames();
+
+        while (definitions.hasNext()) {
+            dependencies.put(JsonPointer.of(DEFINITIONS, definitions.next()).toString(), new LinkedHashSet<>());
+        }
+
+        for (Map.Entry<String, JsonNode> section : spec.properties()) {
+            if (section.getKey().equals(DEFINITIONS) && section.getValue().isObject()) {
+                for (Map.Entry<String, JsonNode> definition : section.getValue().properties()) {
+                    String pointer = JsonPointer.of(DEFINITIONS, definition.getKey()).toString();
+                    collectReferences(definition.getValue(), true, pointer, dependencies.get(pointer));
+                }
+            } else {
+                collectReferences(section.getValue(), false, null, roots);
+            }
+        }
+
+        for (Map.Entry<String, Set<String>> definition : dependencies.entrySet()) {
+            for (String dependency : definition.getValue()) {
+                dependents.computeIfAbsent(dependency, k -> new LinkedHashSet<>()).add(definition.getKey());
+            }
+        }
+
+        reachable = closure(roots, dependencies);
+        components = stronglyConnectedComponents();
+
+        for (Set<String> component : components) {
+            String first = component.iterator().next();
+            if (component.size() > 1 || dependencies.get(first).contains(first)) {
+                recursive.addAll(component);
+            }
+        }
+    }
+
+    /**
+     * @param spec a transformed spec
+     * @return the graph of its definitions
+     */
+    static DefinitionGraph of(JsonNode spec) {
+        return new DefinitionGraph(spec);
+    }
+
+    /**
+     * @return the pointers to all the definitions, in the spec order
+     */
+    public Set<String> getDefinitions() {
+        return Collections.unmodifiableSet(dependencies.keySet());
+    }
+
+    /**
+     * @param definitionPointer the pointer to a definition
+     * @return the definitions referenced by this definition, or an empty set if it doesn't exist
+     */
+    public Set<String> getDependencies(String definitionPointer) {
+        return unmodifiable(dependencies.get(definitionPointer));
+    }
+
+    /**
+     * @param definitionPointer the pointer to a definition
+     * @return the definitions referencing this definition
+     */
+    public Set<String> getDependents(String definitionPointer) {
+        return unmodifiable(dependents.get(definitionPointer));
+    }
+
+    /**
+     * @param definitionPointer the pointer to a definition
+     * @return the definitions referenced by this definition, directly or not. It contains the definition itself
+     * only if it is recursive.
+     */
+    public Set<String> getTransitiveDependencies(String definitionPointer) {
+        return Collections.unmodifiableSet(closure(getDependencies(definitionPointer), dependencies));
+    }
+
+    /**
+     * @param definitionPointer the pointer to a definition
+     * @return the definitions referencing this definition, directly or not. It contains the definition itself
+     * only if it is recursive.
+     */
+    public Set<String> getTransitiveDependents(String definitionPointer) {
+        return Collections.unmodifiableSet(closure(getDependents(definitionPointer), dependents));
+    }
+
+    /**
+     * @return the definitions referenced from outside the {@code definitions} section
+     */
+    public Set<String> getRoots() {
+        return Collections.unmodifiableSet(roots);
+    }
+
+    /**
+     * @return the roots and the definitions they reference, directly or not
+     */
+    public Set<String> getReachableDefinitions() {
+        return Collections.unmodifiableSet(reachable);
+    }
+
+    /**
+     * @return the definitions that can't be reached from the roots, in the spec order. Payloads can still be
+     * validated against these definitions, but the spec itself never uses them.
+     */
+    public Set<String> getUnreachableDefinitions() {
+        Set<String> unreachable = new LinkedHashSet<>(dependencies.keySet());
+        unreachable.removeAll(reachable);
+        return Collections.unmodifiableSet(unreachable);
+    }
+
+    /**
+     * @return the definitions that reference themselves, directly or not
+     */
+    public Set<String> getRecursiveDefinitions() {
+        return Collections.unmodifiableSet(recursive);
+    }
+
+    /**
+     * @return the groups of definitions that reference each other, ordered so that each group only depends on
+     * the groups before it. Definitions that are not recursive are groups of their own.
+     */
+    public List<Set<String>> getComponents() {
+        return Collections.unmodifiableList(components);
+    }
+
+    /**
+     * @return all the definitions, each one after its dependencies except within recursive groups
+     */
+    List<String> getCompilationOrder() {
+        List<String> order = new ArrayList<>(dependencies.size());
+        for (Set<String> component : components) {
+            order.addAll(component);
+        }
+        return order;
+    }
+
+    /**
+     * @return the definitions holding local references to other parts of the spec, or to definitions that don't
+     * exist. They depend on more than the other definitions.
+     */
+    Set<String> getExternalReferrers() {
+        return Collections.unmodifiableSet(externalReferrers);
+    }
+
+    /**
+     * Adds to {@code references} the definitions targeted by the {@code $ref}s found in {@code node}.
+     *
+     * <p>Outside schemas, every field is searched: paths, parameters and responses can be named like keywords (for
+     * example the {@code default} response), and an extra reference only makes the graph more conservative.</p>
+     *
+     * @param schema whether {@code node} is a schema (or an array of schemas), whose values are not searched
+     * @param owner  the definition containing {@code node}, or {@code null} if it's outside the definitions
+     */
+    private void collectReferences(JsonNode node, boolean schema, String owner, Set<String> references) {
+        if (node.isArray()) {
+            for (JsonNode element : node) {
+                collectReferences(element, schema, owner, references);
+            }
+            return;
+        }
+        if (!node.isObject()) {
+            return;
+        }
+
+        for (Map.Entry<String, JsonNode> field : node.properties()) {
+            switch (field.getKey()) {
+                case "$ref":
+                    String ref = field.getValue().textValue();
+                    String definition = definitionPointer(ref);
+                    if (definition != null) {
+                        references.add(definition);
+                    } else if (owner != null && ref != null && ref.startsWith("#")) {
+                        externalReferrers.add(owner);
+                    }
+                    break;
+                case "schema":
+                    collectReferences(field.getValue(), true, owner, references);
+                    break;
+                case "enum":
+                case "default":
+                case "example":
+                    // Values, not schemas
+                    if (!schema) {
+                        collectReferences(field.getValue(), false, owner, references);
+                    }
+                    break;
+                case "properties":
+                case "patternProperties":
+                case "definitions":
+                case "dependencies":
+                    // Schemas by name, where names can collide with keywords
+                    if (schema && field.getValue().isObject()) {
+                        for (JsonNode child : field.getValue()) {
+                            collectReferences(child, true, owner, references);
+                        }
+                    } else {
+                        collectReferences(field.getValue(), schema, owner, references);
+                    }
+                    break;
+                default:
+                    collectReferences(field.getValue(), schema, owner, references);
+            }
+        }
+    }
+
+    /**
+     * @return the pointer to the definition targeted by a local reference, or {@code null}
+     */
+    private String definitionPointer(String ref) {
+        if (ref == null || !ref.startsWith("#/" + DEFINITIONS + "/")) {
+            return null;
+        }
+        int end = ref.indexOf('/', DEFINITIONS.length() + 3);
+        String pointer = end < 0 ? ref.substring(1) : ref.substring(1, end);
+        return dependencies.containsKey(pointer) ? pointer : null;
+    }
+
+    private static Set<String> closure(Set<String> start, Map<String, Set<String>> edges) {
+        Set<String> visited = new LinkedHashSet<>();
+        Deque<String> pending = new ArrayDeque<>(start);
+
+        while (!pending.isEmpty()) {
+            String next = pending.removeFirst();
+            if (visited.add(next)) {
+                pending.addAll(unmodifiable(edges.get(next)));
+            }
+        }
+
+        return visited;
+    }
+
+    /**
+     * Tarjan's algorithm, without recursion so that long chains of references don't overflow the stack.
+     */
+    private List<Set<String>> stronglyConnectedComponents() {
+        List<Set<String>> result = new ArrayList<>();
+        Map<String, Integer> index = new HashMap<>();
+        Map<String, Integer> lowLink = new HashMap<>();
+        Set<String> onStack = new LinkedHashSet<>();
+        Deque<String> stack = new ArrayDeque<>();
+        Deque<Map.Entry<String, Iterator<String>>> calls = new ArrayDeque<>();
+
+        for (String root : dependencies.keySet()) {
+            if (index.containsKey(root)) {
+                continue;
+            }
+
+            visit(root, index, lowLink, onStack, stack, calls);
+
+            while (!calls.isEmpty()) {
+                Map.Entry<String, Iterator<String>> call = calls.peek();
+                String node = call.getKey();
+
+                if (call.getValue().hasNext()) {
+                    String next = call.getValue().next();
+                    if (!index.containsKey(next)) {
+                        visit(next, index, lowLink, onStack, stack, calls);
+                    } else if (onStack.contains(next)) {
+                        lowLink.put(node, Math.min(lowLink.get(node), index.get(next)));
+                    }
+                    continue;
+                }
+
+                calls.pop();
+                if (!calls.isEmpty()) {
+                    String parent = calls.peek().getKey();
+                    lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(node)));
+                }
+
+                if (lowLink.get(node).equals(index.get(node))) {
+                    Set<String> component = new LinkedHashSet<>();
+                    String member;
+                    do {
+                        member = stack.pop();
+                        onStack.remove(member);
+                        component.add(member);
+                    } while (!member.equals(node));
+                    result.add(component);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private void visit(String node, Map<String, Integer> index, Map<String, Integer> lowLink, Set<String> onStack,
+                       Deque<String> stack, Deque<Map.Entry<String, Iterator<String>>> calls) {
+        index.put(node, index.size());
+        lowLink.put(node, index.get(node));
+        stack.push(node);
+        onStack.add(node);
+        calls.push(new AbstractMap.SimpleImmutableEntry<>(node, dependencies.get(node).iterator()));
+    }
+
+    private static Set<String> unmodifiable(Set<String> set) {
+        return set == null ? Collections.emptySet() : Collections.unmodifiableSet(set);
+    }
+
+    @Override
+    public String toString() {
+        return "DefinitionGraph" + dependencies;
+    }
+}
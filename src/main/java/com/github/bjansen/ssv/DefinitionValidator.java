@@ -0,0 +1,62 @@
+package com.github.bjansen.ssv;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+
+/**
+ * Validates payloads against a single, already compiled definition.
+ *
+ * <p>Instances are obtained from {@link SwaggerValidator#forDefinition(String)}. They are immutable and
+ * thread-safe, and don't look up their definition again when validating payloads.</p>
+ */
+public final class DefinitionValidator {
+
+    private final String definitionPointer;
+
+    private final CompiledDefinition schema;
+
+    DefinitionValidator(String definitionPointer, CompiledDefinition schema) {
+        this.definitionPointer = definitionPointer;
+        this.schema = schema;
+    }
+
+    /**
+     * @return the path to the definition payloads are validated against, for example {@code /definitions/User}
+     */
+    public String getDefinitionPointer() {
+        return definitionPointer;
+    }
+
+    /**
+     * Same as {@link #validate(JsonNode, boolean)} with {@code deepCheck = false}.
+     */
+    public ProcessingReport validate(JsonNode jsonPayload) throws ProcessingException {
+        return schema.validate(jsonPayload, false);
+    }
+
+    /**
+     * Validates the given {@code jsonPayload} against the definition.
+     *
+     * @param jsonPayload the JSON payload (as a JsonNode) to validate
+     * @param deepCheck   validate children even if the container (array, object) is invalid
+     * @return a validation report
+     * @throws ProcessingException in case a processing error occurred during validation
+     * @see SwaggerValidator#validate(JsonNode, String, boolean)
+     */
+    public ProcessingReport validate(JsonNode jsonPayload, boolean deepCheck) throws ProcessingException {
+        return schema.validate(jsonPayload, deepCheck);
+    }
+
+    /**
+     * Tells whether the given {@code jsonPayload} is valid against the definition, without building a report.
+     *
+     * @param jsonPayload the JSON payload (as a JsonNode) to validate
+     * @return {@code true} if the payload is valid, {@code false} otherwise
+     * @throws ProcessingException in case a processing error occurred during validation
+     * @see SwaggerValidator#isValid(JsonNode, String)
+     */
+    public boolean isValid(JsonNode jsonPayload) throws ProcessingException {
+        return schema.isValid(jsonPayload);
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.bjansen.ssv;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A schema compiled by {@link FastSchemaCompiler} into specialized validators, which tell whether an instance
+ * is valid without building a report.
+ */
+@FunctionalInterface
+interface FastSchema {
+
+    /**
+     * @param instance the instance to validate
+     * @return the outcome the fge engine would report for {@code instance}
+     */
+    Result validate(JsonNode instance);
+
+    enum Result {
+        /**
+         * The report is a success and contains no message.
+         */
+        VALID,
+        /**
+         * The report is a success but contains warnings.
+         */
+        WARNING,
+        /**
+         * The report contains errors.
+         */
+        INVALID;
+
+        static Result of(boolean valid) {
+            return valid ? VALID : INVALID;
+        }
+
+        Result and(Result other) {
+            return compareTo(other) >= 0 ? this : other;
+        }
+    }
+}
@@ -0,0 +1,666 @@
+package com.github.bjansen.ssv;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.bjansen.ssv.FastSchema.Result;
+import com.github.bjansen.ssv.keywords.EcmaRegex;
+import com.github.fge.jackson.JsonNumEquivalence;
+import com.github.fge.jackson.NodeType;
+import com.github.fge.jackson.jsonpointer.JsonPointer;
+import com.github.fge.jackson.jsonpointer.JsonPointerException;
+import com.github.fge.jsonschema.core.util.RegexECMA262Helper;
+import com.google.common.base.Equivalence;
+import com.google.common.collect.ImmutableSet;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Compiles Swagger definitions into {@link FastSchema}s.
+ *
+ * <p>Only a subset of the keywords is supported: {@code type}, {@code enum}, {@code required},
+ * {@code properties}, {@code additionalProperties}, {@code items}, {@code allOf}, {@code anyOf},
+ * {@code oneOf}, {@code not}, local {@code $ref}s, the numeric, string, array and object bounds, and the
+ * {@code int32} and {@code int64} formats. Swagger annotations ({@code title}, {@code readOnly}...) are
+ * accepted as long as they are syntactically valid. Definitions using anything else, including references
+ * to such definitions, can't be compiled and must be validated by the fge engine.</p>
+ *
+ * <p>A compiler is not thread safe, and should be used to compile a single definition.</p>
+ */
+final class FastSchemaCompiler {
+
+    private static final Set<String> ANNOTATIONS = ImmutableSet.of(
+        "title", "description", "default", "example", "xml", "externalDocs", "readOnly", "discriminator"
+    );
+
+    private static final Equivalence<JsonNode> EQUIVALENCE = JsonNumEquivalence.getInstance();
+
+    private static final FastSchema ANYTHING = instance -> Result.VALID;
+
+    private final JsonNode spec;
+
+    /**
+     * Compiled targets of the {@code $ref}s met so far, indexed by pointer. Entries are registered before
+     * their target is compiled, so that recursive definitions reuse them.
+     */
+    private final Map<String, Reference> references = new HashMap<>();
+
+    /**
+     * Whether regular expressions are evaluated by {@link EcmaRegex} instead of a JavaScript engine.
+     */
+    private final boolean javaRegex;
+
+    /**
+     * Whether {@code discriminator} is a validation keyword rather than an annotation.
+     */
+    private final boolean discriminatorDispatch;
+
+    /**
+     * Compiled targets of the {@code $ref}s met by previous compilations of the same spec, indexed by pointer.
+     */
+    private final ConcurrentMap<String, FastSchema> sharedReferences;
+
+    FastSchemaCompiler(JsonNode spec, SwaggerValidatorConfiguration configuration,
+                       ConcurrentMap<String, FastSchema> sharedReferences) {
+        this.spec = spec;
+        this.sharedReferences = sharedReferences;
+        this.javaRegex = configuration.isJavaRegex();
+        this.discriminatorDispatch = configuration.isDiscriminatorDispatch();
+    }
+
+    /**
+     * @param definitionPointer the pointer to the definition in the spec
+     * @return the compiled definition, or {@code null} if it uses features that are not supported
+     */
+    FastSchema compile(String definitionPointer) {
+        FastSchema schema;
+
+        try {
+            schema = compileReference(definitionPointer);
+        } catch (UnsupportedSchemaException e) {
+            return null;
+        }
+
+        // All the references met by a successful compilation are compiled, so other definitions can reuse them
+        for (Map.Entry<String, Reference> reference : references.entrySet()) {
+            sharedReferences.putIfAbsent(reference.getKey(), reference.getValue());
+        }
+
+        return schema;
+    }
+
+    private FastSchema compileSchema(JsonNode schema) throws UnsupportedSchemaException {
+        if (!schema.isObject()) {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+        if (schema.has("$ref")) {
+            // Like in the fge engine, other keywords are ignored (but must still be valid)
+            checkAnnotations(schema, "$ref");
+            return compileReference(schema.get("$ref"));
+        }
+
+        List<FastSchema> validators = new ArrayList<>();
+        boolean hasObjectChildren = false;
+
+        for (Map.Entry<String, JsonNode> field : schema.properties()) {
+            String keyword = field.getKey();
+            JsonNode value = field.getValue();
+
+            switch (keyword) {
+                case "type":
+                    validators.add(compileType(value));
+                    break;
+                case "enum":
+                    validators.add(compileEnum(value));
+                    break;
+                case "format":
+                    validators.add(compileFormat(value));
+                    break;
+                case "minimum":
+                    validators.add(compileMinimum(value, schema.path("exclusiveMinimum")));
+                    break;
+                case "maximum":
+                    validators.add(compileMaximum(value, schema.path("exclusiveMaximum")));
+                    break;
+                case "exclusiveMinimum":
+                    checkExclusive(value, schema, "minimum");
+                    break;
+                case "exclusiveMaximum":
+                    checkExclusive(value, schema, "maximum");
+                    break;
+                case "minLength":
+                    int minLength = positiveInteger(value);
+                    validators.add(instance -> Result.of(!instance.isTextual() || length(instance) >= minLength));
+                    break;
+                case "maxLength":
+                    int maxLength = positiveInteger(value);
+                    validators.add(instance -> Result.of(!instance.isTextual() || length(instance) <= maxLength));
+                    break;
+                case "pattern":
+                    validators.add(compilePattern(value));
+                    break;
+                case "minItems":
+                    int minItems = positiveInteger(value);
+                    validators.add(instance -> Result.of(!instance.isArray() || instance.size() >= minItems));
+                    break;
+                case "maxItems":
+                    int maxItems = positiveInteger(value);
+                    validators.add(instance -> Result.of(!instance.isArray() || instance.size() <= maxItems));
+                    break;
+                case "uniqueItems":
+                    validators.add(compileUniqueItems(value));
+                    break;
+                case "items":
+                    validators.add(compileItems(value));
+                    break;
+                case "minProperties":
+                    int minProperties = positiveInteger(value);
+                    validators.add(instance -> Result.of(!instance.isObject() || instance.size() >= minProperties));
+                    break;
+                case "maxProperties":
+                    int maxProperties = positiveInteger(value);
+                    validators.add(instance -> Result.of(!instance.isObject() || instance.size() <= maxProperties));
+                    break;
+                case "required":
+                    validators.add(compileRequired(value));
+                    break;
+                case "properties":
+                case "additionalProperties":
+                    hasObjectChildren = true;
+                    break;
+                case "allOf":
+                    validators.add(compileAllOf(value));
+                    break;
+                case "anyOf":
+                    validators.add(compileAnyOf(value));
+                    break;
+                case "oneOf":
+                    validators.add(compileOneOf(value));
+                    break;
+                case "not":
+                    FastSchema not = compileSchema(value);
+                    validators.add(instance -> Result.of(not.validate(instance) == Result.INVALID));
+                    break;
+                default:
+                    checkAnnotation(keyword, value);
+            }
+        }
+
+        if (hasObjectChildren) {
+            validators.add(compileProperties(schema.path("properties"), schema.path("additionalProperties")));
+        }
+
+        return all(validators);
+    }
+
+    private FastSchema compileReference(JsonNode ref) throws UnsupportedSchemaException {
+        return compileReference(localPointer(ref));
+    }
+
+    private FastSchema compileReference(String pointer) throws UnsupportedSchemaException {
+        // Follow chains of references up to an actual schema, like the fge engine does
+        Set<String> chain = new LinkedHashSet<>();
+        JsonNode target = resolve(pointer);
+
+        while (target.has("$ref")) {
+            if (!chain.add(pointer)) {
+                throw UnsupportedSchemaException.INSTANCE;
+            }
+            checkAnnotations(target, "$ref");
+            pointer = localPointer(target.get("$ref"));
+            target = resolve(pointer);
+        }
+
+        FastSchema shared = sharedReferences.get(pointer);
+        if (shared != null) {
+            return shared;
+        }
+
+        Reference reference = references.get(pointer);
+
+        if (reference == null) {
+            reference = new Reference();
+            references.put(pointer, reference);
+            reference.target = compileSchema(target);
+        }
+
+        return reference;
+    }
+
+    private FastSchema compileType(JsonNode value) throws UnsupportedSchemaException {
+        EnumSet<NodeType> types = EnumSet.noneOf(NodeType.class);
+
+        if (value.isTextual()) {
+            types.add(nodeType(value));
+        } else if (value.isArray() && value.size() > 0) {
+            for (JsonNode type : value) {
+                if (!types.add(nodeType(type))) {
+                    throw UnsupportedSchemaException.INSTANCE;
+                }
+            }
+        } else {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+
+        if (types.contains(NodeType.NUMBER)) {
+            types.add(NodeType.INTEGER);
+        }
+
+        return instance -> Result.of(types.contains(NodeType.getNodeType(instance)));
+    }
+
+    private FastSchema compileEnum(JsonNode value) throws UnsupportedSchemaException {
+        if (!value.isArray() || value.size() == 0 || !unique(value)) {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+
+        return instance -> {
+            for (JsonNode enumValue : value) {
+                if (EQUIVALENCE.equivalent(enumValue, instance)) {
+                    return Result.VALID;
+                }
+            }
+            return Result.INVALID;
+        };
+    }
+
+    private FastSchema compileFormat(JsonNode value) throws UnsupportedSchemaException {
+        if (!value.isTextual()) {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+
+        // Same checks as Int32Attribute and Int64Attribute, failures are warnings
+        switch (value.textValue()) {
+            case "int32":
+                return instance -> NodeType.getNodeType(instance) != NodeType.INTEGER || instance.canConvertToInt()
+                    ? Result.VALID : Result.WARNING;
+            case "int64":
+                return instance -> NodeType.getNodeType(instance) != NodeType.INTEGER || instance.canConvertToLong()
+                    ? Result.VALID : Result.WARNING;
+            default:
+                throw UnsupportedSchemaException.INSTANCE;
+        }
+    }
+
+    private FastSchema compileMinimum(JsonNode value, JsonNode exclusive) throws UnsupportedSchemaException {
+        if (!value.isNumber()) {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+        boolean strict = exclusive.asBoolean(false);
+
+        return instance -> {
+            if (!instance.isNumber()) {
+                return Result.VALID;
+            }
+            int cmp = compare(instance, value);
+            return Result.of(cmp > 0 || cmp == 0 && !strict);
+        };
+    }
+
+    private FastSchema compileMaximum(JsonNode value, JsonNode exclusive) throws UnsupportedSchemaException {
+        if (!value.isNumber()) {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+        boolean strict = exclusive.asBoolean(false);
+
+        return instance -> {
+            if (!instance.isNumber()) {
+                return Result.VALID;
+            }
+            int cmp = compare(instance, value);
+            return Result.of(cmp < 0 || cmp == 0 && !strict);
+        };
+    }
+
+    private static void checkExclusive(JsonNode value, JsonNode schema, String bound)
+        throws UnsupportedSchemaException {
+        if (!value.isBoolean() || !schema.has(bound)) {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+    }
+
+    private FastSchema compilePattern(JsonNode value) throws UnsupportedSchemaException {
+        if (!value.isTextual() || !RegexECMA262Helper.regexIsValid(value.textValue())) {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+        String regex = value.textValue();
+
+        if (javaRegex) {
+            EcmaRegex pattern = EcmaRegex.of(regex);
+            return instance -> Result.of(!instance.isTextual() || pattern.find(instance.textValue()));
+        }
+
+        return instance -> Result.of(!instance.isTextual() || RegexECMA262Helper.regMatch(regex, instance.textValue()));
+    }
+
+    private FastSchema compileUniqueItems(JsonNode value) throws UnsupportedSchemaException {
+        if (!value.isBoolean()) {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+        if (!value.booleanValue()) {
+            return ANYTHING;
+        }
+
+        return instance -> Result.of(!instance.isArray() || unique(instance));
+    }
+
+    private FastSchema compileItems(JsonNode value) throws UnsupportedSchemaException {
+        // Tuples would also require additionalItems, leave them to the fge engine
+        FastSchema items = compileSchema(value);
+
+        return instance -> {
+            if (!instance.isArray()) {
+                return Result.VALID;
+            }
+            Result result = Result.VALID;
+            for (JsonNode element : instance) {
+                result = result.and(items.validate(element));
+                if (result == Result.INVALID) {
+                    break;
+                }
+            }
+            return result;
+        };
+    }
+
+    private FastSchema compileRequired(JsonNode value) throws UnsupportedSchemaException {
+        if (!value.isArray() || value.size() == 0) {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+
+        Set<String> names = new HashSet<>();
+        for (JsonNode name : value) {
+            if (!name.isTextual() || !names.add(name.textValue())) {
+                throw UnsupportedSchemaException.INSTANCE;
+            }
+        }
+        String[] required = names.toArray(new String[0]);
+
+        return instance -> {
+            if (instance.isObject()) {
+                for (String name : required) {
+                    if (!instance.has(name)) {
+                        return Result.INVALID;
+                    }
+                }
+            }
+            return Result.VALID;
+        };
+    }
+
+    private FastSchema compileProperties(JsonNode value, JsonNode additional) throws UnsupportedSchemaException {
+        Map<String, FastSchema> properties = new HashMap<>();
+
+        if (!value.isMissingNode()) {
+            if (!value.isObject()) {
+                throw UnsupportedSchemaException.INSTANCE;
+            }
+            for (Map.Entry<String, JsonNode> field : value.properties()) {
+                properties.put(field.getKey(), compileSchema(field.getValue()));
+            }
+        }
+
+        boolean additionalAllowed;
+        FastSchema additionalSchema;
+
+        if (additional.isMissingNode() || additional.isBoolean()) {
+            additionalAllowed = additional.asBoolean(true);
+            additionalSchema = ANYTHING;
+        } else {
+            additionalAllowed = true;
+            additionalSchema = compileSchema(additional);
+        }
+
+        return instance -> {
+            if (!instance.isObject()) {
+                return Result.VALID;
+            }
+            Result result = Result.VALID;
+            Iterator<Map.Entry<String, JsonNode>> fields = instance.properties().iterator();
+            while (fields.hasNext() && result != Result.INVALID) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                FastSchema property = properties.get(field.getKey());
+
+                if (property != null) {
+                    result = result.and(property.validate(field.getValue()));
+                } else if (additionalAllowed) {
+                    result = result.and(additionalSchema.validate(field.getValue()));
+                } else {
+                    result = Result.INVALID;
+                }
+            }
+            return result;
+        };
+    }
+
+    // The fge engine validates each branch of a combinator in a separate report, warnings are not kept
+
+    private FastSchema compileAllOf(JsonNode value) throws UnsupportedSchemaException {
+        FastSchema[] branches = compileBranches(value);
+
+        return instance -> {
+            for (FastSchema branch : branches) {
+                if (branch.validate(instance) == Result.INVALID) {
+                    return Result.INVALID;
+                }
+            }
+            return Result.VALID;
+        };
+    }
+
+    private FastSchema compileAnyOf(JsonNode value) throws UnsupportedSchemaException {
+        FastSchema[] branches = compileBranches(value);
+
+        return instance -> {
+            for (FastSchema branch : branches) {
+                if (branch.validate(instance) != Result.INVALID) {
+                    return Result.VALID;
+                }
+            }
+            return Result.INVALID;
+        };
+    }
+
+    private FastSchema compileOneOf(JsonNode value) throws UnsupportedSchemaException {
+        FastSchema[] branches = compileBranches(value);
+
+        return instance -> {
+            int matches = 0;
+            for (FastSchema branch : branches) {
+                if (branch.validate(instance) != Result.INVALID && ++matches > 1) {
+                    return Result.INVALID;
+                }
+            }
+            return Result.of(matches == 1);
+        };
+    }
+
+    private FastSchema[] compileBranches(JsonNode value) throws UnsupportedSchemaException {
+        if (!value.isArray() || value.size() == 0) {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+
+        FastSchema[] branches = new FastSchema[value.size()];
+        for (int i = 0; i < branches.length; i++) {
+            branches[i] = compileSchema(value.get(i));
+        }
+        return branches;
+    }
+
+    private static FastSchema all(List<FastSchema> validators) {
+        if (validators.isEmpty()) {
+            return ANYTHING;
+        }
+        if (validators.size() == 1) {
+            return validators.get(0);
+        }
+
+        FastSchema[] array = validators.toArray(new FastSchema[0]);
+
+        return instance -> {
+            Result result = Result.VALID;
+            for (FastSchema validator : array) {
+                result = result.and(validator.validate(instance));
+                if (result == Result.INVALID) {
+                    break;
+                }
+            }
+            return result;
+        };
+    }
+
+    private void checkAnnotations(JsonNode schema, String ignored) throws UnsupportedSchemaException {
+        for (Map.Entry<String, JsonNode> field : schema.properties()) {
+            if (!field.getKey().equals(ignored)) {
+                checkAnnotation(field.getKey(), field.getValue());
+            }
+        }
+    }
+
+    /**
+     * Checks that {@code keyword} is an annotation with a valid value. Anything else could make the fge
+     * engine report syntax errors or unknown keywords warnings.
+     */
+    private void checkAnnotation(String keyword, JsonNode value) throws UnsupportedSchemaException {
+        if (!ANNOTATIONS.contains(keyword) || keyword.equals("discriminator") && discriminatorDispatch) {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+
+        boolean valid;
+        switch (keyword) {
+            case "title":
+            case "description":
+            case "discriminator":
+                valid = value.isTextual();
+                break;
+            case "xml":
+            case "externalDocs":
+                valid = value.isObject();
+                break;
+            case "readOnly":
+                valid = value.isBoolean();
+                break;
+            default:
+                valid = true;
+        }
+
+        if (!valid) {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+    }
+
+    private JsonNode resolve(String pointer) throws UnsupportedSchemaException {
+        try {
+            JsonNode node = new JsonPointer(pointer).path(spec);
+            if (node.isMissingNode()) {
+                throw UnsupportedSchemaException.INSTANCE;
+            }
+            return node;
+        } catch (JsonPointerException e) {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+    }
+
+    /**
+     * @return the pointer of a {@code $ref} to the spec itself, like {@code #/definitions/User}
+     */
+    private static String localPointer(JsonNode ref) throws UnsupportedSchemaException {
+        if (!ref.isTextual() || !ref.textValue().startsWith("#")) {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+        String fragment = ref.textValue().substring(1);
+
+        try {
+            // Escaped characters would have to be decoded first
+            if (fragment.indexOf('%') >= 0 || !fragment.equals(new URI(ref.textValue()).getRawFragment())) {
+                throw UnsupportedSchemaException.INSTANCE;
+            }
+        } catch (URISyntaxException e) {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+
+        return fragment;
+    }
+
+    private static NodeType nodeType(JsonNode type) throws UnsupportedSchemaException {
+        NodeType nodeType = type.isTextual() ? NodeType.fromName(type.textValue()) : null;
+        if (nodeType == null) {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+        return nodeType;
+    }
+
+    private static int positiveInteger(JsonNode value) throws UnsupportedSchemaException {
+        if (!value.isIntegralNumber() || !value.canConvertToInt() || value.intValue() < 0) {
+            throw UnsupportedSchemaException.INSTANCE;
+        }
+        return value.intValue();
+    }
+
+    private static int length(JsonNode text) {
+        String value = text.textValue();
+        return value.codePointCount(0, value.length());
+    }
+
+    /**
+     * Compares numbers like {@link com.github.fge.jsonschema.keyword.validator.helpers.NumericValidator}.
+     */
+    private static int compare(JsonNode instance, JsonNode bound) {
+        if (isLong(instance) && isLong(bound)) {
+            return Long.compare(instance.longValue(), bound.longValue());
+        }
+        BigDecimal value = instance.decimalValue();
+        return value.compareTo(bound.decimalValue());
+    }
+
+    private static boolean isLong(JsonNode number) {
+        return NodeType.getNodeType(number) == NodeType.INTEGER && number.canConvertToLong();
+    }
+
+    private static boolean unique(JsonNode array) {
+        Set<Equivalence.Wrapper<JsonNode>> elements = new HashSet<>();
+        for (JsonNode element : array) {
+            if (!elements.add(EQUIVALENCE.wrap(element))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The target of a {@code $ref}, set once compiled.
+     */
+    private static final class Reference implements FastSchema {
+
+        private FastSchema target;
+
+        @Override
+        public Result validate(JsonNode instance) {
+            return target.validate(instance);
+        }
+    }
+
+    /**
+     * Thrown when a schema can't be compiled, and must be validated by the fge engine.
+     */
+    private static final class UnsupportedSchemaException extends Exception {
+
+        private static final long serialVersionUID = 1L;
+
+        private static final UnsupportedSchemaException INSTANCE = new UnsupportedSchemaException();
+
+        private UnsupportedSchemaException() {
+            super(null, null, false, false);
+        }
+    }
+}
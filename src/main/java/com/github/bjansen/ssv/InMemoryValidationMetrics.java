@@ -0,0 +1,201 @@
+package com.github.bjansen.ssv;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link ValidationListener} that keeps histograms of compilation and validation times for each definition,
+ * as well as a histogram of payload sizes.
+ *
+ * <p>Histograms use power-of-two buckets, so recording a value is a few atomic increments, and percentiles
+ * are approximated by the upper bound of their bucket.</p>
+ */
+public final class InMemoryValidationMetrics implements ValidationListener {
+
+    private final ConcurrentMap<String, DefinitionMetrics> definitions = new ConcurrentHashMap<>();
+
+    private final Histogram payloadSizes = new Histogram();
+
+    @Override
+    public void onCompilation(String definitionPointer, long durationNanos, boolean success) {
+        DefinitionMetrics metrics = getOrCreate(definitionPointer);
+        metrics.compilationTimes.record(durationNanos);
+        if (!success) {
+            metrics.compilationFailures.increment();
+        }
+    }
+
+    @Override
+    public void onParsing(int payloadSize, long durationNanos) {
+        payloadSizes.record(payloadSize);
+    }
+
+    @Override
+    public void onValidation(String definitionPointer, long durationNanos, boolean valid) {
+        DefinitionMetrics metrics = getOrCreate(definitionPointer);
+        metrics.validationTimes.record(durationNanos);
+        if (!valid) {
+            metrics.invalidPayloads.increment();
+        }
+    }
+
+    /**
+     * @return the metrics of each definition that was compiled or validated against, indexed by definition pointer
+     */
+    public Map<String, DefinitionMetrics> getDefinitions() {
+        return Collections.unmodifiableMap(definitions);
+    }
+
+    /**
+     * @param definitionPointer the path to a definition, for example {@code /definitions/User}
+     * @return the metrics of this definition, or {@code null} if it was never compiled nor validated against
+     */
+    public DefinitionMetrics getDefinition(String definitionPointer) {
+        return definitions.get(definitionPointer);
+    }
+
+    /**
+     * @return the sizes of the payloads given as text or bytes, in characters or bytes
+     */
+    public Histogram getPayloadSizes() {
+        return payloadSizes;
+    }
+
+    private DefinitionMetrics getOrCreate(String definitionPointer) {
+        DefinitionMetrics metrics = definitions.get(definitionPointer);
+        return metrics != null ? metrics : definitions.computeIfAbsent(definitionPointer, k -> new DefinitionMetrics());
+    }
+
+    /**
+     * Metrics of a single definition.
+     */
+    public static final class DefinitionMetrics {
+
+        private final Histogram compilationTimes = new Histogram();
+        private final LongAdder compilationFailures = new LongAdder();
+        private final Histogram validationTimes = new Histogram();
+        private final LongAdder invalidPayloads = new LongAdder();
+
+        private DefinitionMetrics() {
+        }
+
+        /**
+         * @return the compilation times of the definition, in nanoseconds. The count is the number of cache misses.
+         */
+        public Histogram getCompilationTimes() {
+            return compilationTimes;
+        }
+
+        /**
+         * @return the number of times the definition could not be compiled
+         */
+        public long getCompilationFailures() {
+            return compilationFailures.sum();
+        }
+
+        /**
+         * @return the validation times of payloads against the definition, in nanoseconds
+         */
+        public Histogram getValidationTimes() {
+            return validationTimes;
+        }
+
+        /**
+         * @return the number of payloads that were invalid against the definition
+         */
+        public long getInvalidPayloads() {
+            return invalidPayloads.sum();
+        }
+    }
+
+    /**
+     * A thread-safe histogram of positive values.
+     */
+    public static final class Histogram {
+
+        /**
+         * Bucket {@code i} counts values whose highest bit is bit {@code i - 1}, i.e. values in
+         * {@code [2^(i-1), 2^i - 1]}. Bucket 0 counts zeros.
+         */
+        private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE + 1);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        private Histogram() {
+        }
+
+        void record(long value) {
+            long positive = Math.max(value, 0);
+            buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(positive));
+            count.increment();
+            sum.add(positive);
+            max.accumulate(positive);
+        }
+
+        /**
+         * @return the number of recorded values
+         */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * @return the sum of recorded values
+         */
+        public long getSum() {
+            return sum.sum();
+        }
+
+        /**
+         * @return the mean of recorded values, or {@code 0} if there are none
+         */
+        public double getMean() {
+            long n = getCount();
+            return n == 0 ? 0 : (double) getSum() / n;
+        }
+
+        /**
+         * @return the largest recorded value, or {@code 0} if there are none
+         */
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * @param percentile a percentile between 0 and 100, for example {@code 99}
+         * @return an upper bound of the given percentile of recorded values (at most twice the actual value),
+         * or {@code 0} if there are none
+         */
+        public long getPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Invalid percentile " + percentile);
+            }
+
+            long[] counts = new long[buckets.length()];
+            long total = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                total += counts[i];
+            }
+
+            long rank = (long) Math.ceil(total * percentile / 100);
+            long seen = 0;
+
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) {
+                    long upperBound = i == 0 ? 0 : i == Long.SIZE ? Long.MAX_VALUE : (1L << i) - 1;
+                    return Math.min(upperBound, getMax());
+                }
+            }
+
+            return 0;
+        }
+    }
+}
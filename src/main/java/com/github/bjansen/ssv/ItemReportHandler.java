@@ -0,0 +1,18 @@
+package com.github.bjansen.ssv;
+
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+
+/**
+ * Receives the validation report of each item read by
+ * {@link SwaggerValidator#validateItems(java.io.InputStream, String, ItemReportHandler)}, as soon as it is validated.
+ */
+@FunctionalInterface
+public interface ItemReportHandler {
+
+    /**
+     * @param index  the position of the item in the payload, starting at 0, or the number of items for the report
+     *               of {@code minItems} and {@code maxItems}
+     * @param report the validation report of the item, or of the number of items
+     */
+    void handle(long index, ProcessingReport report);
+}
@@ -0,0 +1,196 @@
+package com.github.bjansen.ssv;
+
+import com.github.fge.jackson.jsonpointer.JsonPointer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records how many times each keyword validator and format attribute of the fge engine is invoked, and the time
+ * spent in these invocations, for each schema they appear in. This helps finding the expensive parts of a spec.
+ *
+ * <p>Profiling is enabled with {@link SwaggerValidatorConfiguration.Builder#setKeywordProfiler(KeywordProfiler)}.
+ * Format attributes are recorded as {@code format:<name>}. Times are inclusive: the time of combinators like
+ * {@code oneOf} includes the time spent validating their subschemas. Payloads accepted by native validators
+ * (see {@link SwaggerValidatorConfiguration.Builder#setFastValidation(boolean)}) are not profiled.</p>
+ *
+ * <p>Profiling adds some overhead to each keyword, so it is meant for diagnostics rather than production.</p>
+ */
+public final class KeywordProfiler {
+
+    private final ConcurrentMap<Key, Counter> counters = new ConcurrentHashMap<>();
+
+    void record(String keyword, JsonPointer schemaPointer, long durationNanos) {
+        Key key = new Key(keyword, schemaPointer);
+        Counter counter = counters.get(key);
+
+        if (counter == null) {
+            counter = counters.computeIfAbsent(key, k -> new Counter());
+        }
+
+        counter.invocations.increment();
+        counter.totalNanos.add(durationNanos);
+    }
+
+    /**
+     * @return the invocations of each keyword in each schema, most expensive first
+     */
+    public List<Entry> getEntries() {
+        List<Entry> entries = new ArrayList<>(counters.size());
+
+        for (Map.Entry<Key, Counter> counter : counters.entrySet()) {
+            entries.add(new Entry(counter.getKey().keyword, counter.getKey().schemaPointer.toString(),
+                counter.getValue().invocations.sum(), counter.getValue().totalNanos.sum()));
+        }
+
+        entries.sort(Comparator.comparingLong(Entry::getTotalNanos).reversed());
+        return entries;
+    }
+
+    /**
+     * @return the invocations of each keyword in all schemas, most expensive first. The schema pointer of
+     * these entries is {@code null}.
+     */
+    public List<Entry> getKeywordTotals() {
+        Map<String, Entry> totals = new LinkedHashMap<>();
+
+        for (Entry entry : getEntries()) {
+            Entry total = totals.get(entry.keyword);
+            totals.put(entry.keyword, total == null
+                ? new Entry(entry.keyword, null, entry.invocations, entry.totalNanos)
+                : new Entry(entry.keyword, null, total.invocations + entry.invocations,
+                    total.totalNanos + entry.totalNanos));
+        }
+
+        List<Entry> entries = new ArrayList<>(totals.values());
+        entries.sort(Comparator.comparingLong(Entry::getTotalNanos).reversed());
+        return entries;
+    }
+
+    /**
+     * Forgets all the recorded invocations.
+     */
+    public void reset() {
+        counters.clear();
+    }
+
+    /**
+     * @return a human-readable report of the keyword totals, followed by the entries of each schema
+     */
+    public String dump() {
+        StringBuilder report = new StringBuilder();
+
+        report.append(String.format(Locale.ROOT, "%-24s %12s %14s %10s%n",
+            "keyword", "invocations", "total (us)", "mean (ns)"));
+        for (Entry entry : getKeywordTotals()) {
+            report.append(String.format(Locale.ROOT, "%-24s %12d %14d %10d%n",
+                entry.keyword, entry.invocations, entry.totalNanos / 1000, entry.getMeanNanos()));
+        }
+
+        report.append(String.format(Locale.ROOT, "%n%-24s %12s %14s %10s  %s%n",
+            "keyword", "invocations", "total (us)", "mean (ns)", "schema"));
+        for (Entry entry : getEntries()) {
+            report.append(String.format(Locale.ROOT, "%-24s %12d %14d %10d  %s%n",
+                entry.keyword, entry.invocations, entry.totalNanos / 1000, entry.getMeanNanos(), entry.schemaPointer));
+        }
+
+        return report.toString();
+    }
+
+    /**
+     * The invocations of a keyword.
+     */
+    public static final class Entry {
+
+        private final String keyword;
+        private final String schemaPointer;
+        private final long invocations;
+        private final long totalNanos;
+
+        private Entry(String keyword, String schemaPointer, long invocations, long totalNanos) {
+            this.keyword = keyword;
+            this.schemaPointer = schemaPointer;
+            this.invocations = invocations;
+            this.totalNanos = totalNanos;
+        }
+
+        /**
+         * @return the keyword, for example {@code oneOf} or {@code format:int32}
+         */
+        public String getKeyword() {
+            return keyword;
+        }
+
+        /**
+         * @return the pointer to the schema that contains the keyword, for example {@code /definitions/User}
+         */
+        public String getSchemaPointer() {
+            return schemaPointer;
+        }
+
+        /**
+         * @return the number of invocations
+         */
+        public long getInvocations() {
+            return invocations;
+        }
+
+        /**
+         * @return the time spent in these invocations, in nanoseconds
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * @return the mean time of an invocation, in nanoseconds
+         */
+        public long getMeanNanos() {
+            return invocations == 0 ? 0 : totalNanos / invocations;
+        }
+
+        @Override
+        public String toString() {
+            return keyword + (schemaPointer == null ? "" : " in " + schemaPointer) + ": " + invocations
+                + " invocations, " + totalNanos + " ns";
+        }
+    }
+
+    private static final class Key {
+
+        private final String keyword;
+        private final JsonPointer schemaPointer;
+
+        private Key(String keyword, JsonPointer schemaPointer) {
+            this.keyword = keyword;
+            this.schemaPointer = schemaPointer;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return keyword.equals(other.keyword) && schemaPointer.equals(other.schemaPointer);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * keyword.hashCode() + schemaPointer.hashCode();
+        }
+    }
+
+    private static final class Counter {
+
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+    }
+}
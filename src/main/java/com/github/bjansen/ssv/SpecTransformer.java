@@ -0,0 +1,365 @@
+package com.github.bjansen.ssv;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Renames properties in the definitions of a spec, for example {@code x-oneOf} to {@code oneOf}.
+ *
+ * <p>Renamings are applied in order, so a property renamed by one of them can be renamed again by a following
+ * one ({@code x-oneof} to {@code x-oneOf} to {@code oneOf}). Such chains are resolved when the transformer
+ * is created, so that each object is rewritten in a single pass over its fields. Objects containing several
+ * properties of the same chain, whose renamings could interfere, are rewritten by applying the renamings one
+ * after the other instead.</p>
+ */
+final class SpecTransformer {
+
+    /**
+     * Number of definitions transformed by each task, when transforming in parallel.
+     */
+    private static final int BATCH_SIZE = 64;
+
+    private final List<Map.Entry<String, String>> entries;
+
+    private final Map<String, Rename> renames;
+
+    /**
+     * @param transformations the renamings to apply, in order
+     */
+    SpecTransformer(Map<String, String> transformations) {
+        entries = new ArrayList<>(transformations.entrySet());
+        Map<String, Integer> positions = new HashMap<>();
+        // Names linked by renamings, directly or not, belong to the same chain
+        Map<String, String> chains = new HashMap<>();
+
+        for (int i = 0; i < entries.size(); i++) {
+            positions.put(entries.get(i).getKey(), i);
+            String source = chain(chains, entries.get(i).getKey());
+            String target = chain(chains, entries.get(i).getValue());
+            if (!source.equals(target)) {
+                chains.put(source, target);
+            }
+        }
+
+        renames = new HashMap<>();
+
+        for (int i = 0; i < entries.size(); i++) {
+            // Follow the renamings that are applied after this one
+            String target = entries.get(i).getValue();
+            int position = i;
+            Integer next = positions.get(target);
+
+            while (next != null && next > position) {
+                position = next;
+                target = entries.get(position).getValue();
+                next = positions.get(target);
+            }
+            if (next != null && next == position) {
+                // Renaming a property to its own name removes it
+                target = null;
+            }
+
+            String source = entries.get(i).getKey();
+            renames.put(source, new Rename(position, source, target, chain(chains, source)));
+        }
+    }
+
+    /**
+     * @return the name identifying the chain of {@code name}
+     */
+    private static String chain(Map<String, String> chains, String name) {
+        String chain = name;
+        String next = chains.get(chain);
+
+        while (next != null) {
+            chain = next;
+            next = chains.get(chain);
+        }
+
+        return chain;
+    }
+
+    /**
+     * Applies the renamings on each property contained in each definition of the given spec.
+     *
+     * <p>The spec is not modified. Instead, objects that contain renamed properties (and their ancestors) are
+     * copied, while other nodes are shared between the spec and the returned tree.</p>
+     *
+     * @param spec the spec
+     * @return the patched spec, or {@code spec} itself if there was nothing to rename
+     */
+    JsonNode transform(JsonNode spec) {
+        return transform(spec, null);
+    }
+
+    /**
+     * Same as {@link #transform(JsonNode)}, but definitions are transformed in parallel by the given
+     * {@code executor}. This method returns once all definitions are transformed.
+     *
+     * @param spec     the spec
+     * @param executor the executor used to transform definitions, or {@code null} to transform them in the
+     *                 calling thread
+     * @return the patched spec, or {@code spec} itself if there was nothing to rename
+     */
+    JsonNode transform(JsonNode spec, Executor executor) {
+        JsonNode definitions = spec.get("definitions");
+
+        if (definitions == null) {
+            return spec;
+        }
+
+        JsonNode transformed = executor != null && definitions.isObject() && definitions.size() > BATCH_SIZE
+            ? transformInParallel((ObjectNode) definitions, executor)
+            : transformChildren(definitions);
+
+        if (transformed == definitions) {
+            return spec;
+        }
+
+        ObjectNode copy = copy((ObjectNode) spec);
+        copy.set("definitions", transformed);
+        return copy;
+    }
+
+    /**
+     * Same as {@link #transform(JsonNode)}, but definitions found in {@code transformedDefinitions} are not
+     * transformed again: their already transformed version is used instead.
+     *
+     * @param spec                   the spec
+     * @param transformedDefinitions transformed definitions, indexed by name
+     * @return the patched spec, or {@code spec} itself if there was nothing to rename
+     */
+    JsonNode retransform(JsonNode spec, Map<String, JsonNode> transformedDefinitions) {
+        JsonNode definitions = spec.get("definitions");
+
+        if (definitions == null || !definitions.isObject()) {
+            return transform(spec);
+        }
+
+        ObjectNode transformed = null;
+
+        for (Map.Entry<String, JsonNode> field : definitions.properties()) {
+            JsonNode definition = transformedDefinitions.get(field.getKey());
+
+            if (definition == null) {
+                definition = transformRecursively(field.getValue());
+            }
+            if (definition != field.getValue()) {
+                if (transformed == null) {
+                    transformed = copy((ObjectNode) definitions);
+                }
+                transformed.set(field.getKey(), definition);
+            }
+        }
+
+        if (transformed == null) {
+            return spec;
+        }
+
+        ObjectNode copy = copy((ObjectNode) spec);
+        copy.set("definitions", transformed);
+        return copy;
+    }
+
+    private JsonNode transformInParallel(ObjectNode definitions, Executor executor) {
+        List<Map.Entry<String, JsonNode>> entries = new ArrayList<>(definitions.properties());
+
+        List<CompletableFuture<JsonNode[]>> batches = new ArrayList<>();
+
+        for (int start = 0; start < entries.size(); start += BATCH_SIZE) {
+            int end = Math.min(start + BATCH_SIZE, entries.size());
+            List<Map.Entry<String, JsonNode>> batch = entries.subList(start, end);
+
+            batches.add(CompletableFuture.supplyAsync(() -> {
+                JsonNode[] transformed = new JsonNode[batch.size()];
+                for (int i = 0; i < transformed.length; i++) {
+                    transformed[i] = transformRecursively(batch.get(i).getValue());
+                }
+                return transformed;
+            }, executor));
+        }
+
+        // Results are assembled in the spec order, whatever the order in which batches complete
+        ObjectNode copy = null;
+        int index = 0;
+
+        for (CompletableFuture<JsonNode[]> batch : batches) {
+            JsonNode[] transformed;
+            try {
+                transformed = batch.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+
+            for (JsonNode node : transformed) {
+                Map.Entry<String, JsonNode> entry = entries.get(index++);
+
+                if (node != entry.getValue()) {
+                    if (copy == null) {
+                        copy = copy(definitions);
+                    }
+                    copy.set(entry.getKey(), node);
+                }
+            }
+        }
+
+        return copy == null ? definitions : copy;
+    }
+
+    private JsonNode transformRecursively(JsonNode node) {
+        JsonNode transformed = transformChildren(node);
+
+        if (transformed.isObject()) {
+            return rename((ObjectNode) transformed, transformed != node);
+        }
+
+        return transformed;
+    }
+
+    /**
+     * @return {@code node} if none of its children changed, or a copy of {@code node} with its changed children
+     */
+    private JsonNode transformChildren(JsonNode node) {
+        if (node.isObject()) {
+            ObjectNode copy = null;
+
+            for (Map.Entry<String, JsonNode> field : node.properties()) {
+                JsonNode transformed = transformRecursively(field.getValue());
+
+                if (transformed != field.getValue()) {
+                    if (copy == null) {
+                        copy = copy((ObjectNode) node);
+                    }
+                    copy.set(field.getKey(), transformed);
+                }
+            }
+
+            return copy == null ? node : copy;
+        }
+
+        if (node.isArray()) {
+            ArrayNode copy = null;
+
+            for (int i = 0; i < node.size(); i++) {
+                JsonNode transformed = transformRecursively(node.get(i));
+
+                if (transformed != node.get(i)) {
+                    if (copy == null) {
+                        copy = ((ArrayNode) node).arrayNode().addAll((ArrayNode) node);
+                    }
+                    copy.set(i, transformed);
+                }
+            }
+
+            return copy == null ? node : copy;
+        }
+
+        return node;
+    }
+
+    /**
+     * @param owned whether {@code node} is already a copy, that can be modified
+     * @return {@code node} if none of its properties has to be renamed, or a copy with renamed properties
+     */
+    private ObjectNode rename(ObjectNode node, boolean owned) {
+        Rename first = null;
+        List<Rename> others = null;
+        boolean interfering = false;
+
+        Iterator<String> names = node.fieldNames();
+        while (names.hasNext()) {
+            String name = names.next();
+            Rename rename = renames.get(name);
+
+            if (rename == null) {
+                continue;
+            }
+            if (first == null) {
+                first = rename;
+            } else {
+                if (others == null) {
+                    others = new ArrayList<>();
+                    others.add(first);
+                }
+                for (Rename other : others) {
+                    interfering |= other.chain.equals(rename.chain);
+                }
+                others.add(rename);
+            }
+        }
+
+        if (first == null) {
+            return node;
+        }
+
+        ObjectNode renamed = owned ? node : copy(node);
+
+        if (interfering) {
+            // Renamings of the same chain may overwrite each other's properties, which depends on their order
+            for (Map.Entry<String, String> entry : entries) {
+                if (renamed.has(entry.getKey())) {
+                    renamed.set(entry.getValue(), renamed.get(entry.getKey()));
+                    renamed.remove(entry.getKey());
+                }
+            }
+        } else if (others != null) {
+            // Each chain only touches its own names, and renamed properties are added in the order of renamings
+            others.sort((a, b) -> Integer.compare(a.position, b.position));
+
+            for (Rename rename : others) {
+                rename.apply(renamed);
+            }
+        } else {
+            first.apply(renamed);
+        }
+
+        return renamed;
+    }
+
+    /**
+     * @return a shallow copy of {@code node}
+     */
+    private static ObjectNode copy(ObjectNode node) {
+        ObjectNode copy = node.objectNode();
+        copy.setAll(node);
+        return copy;
+    }
+
+    private static final class Rename {
+
+        /**
+         * The position of the last renaming of the chain that applies to the property.
+         */
+        private final int position;
+        private final String source;
+        /**
+         * The final name of the property, or {@code null} if it is removed.
+         */
+        private final String target;
+        private final String chain;
+
+        private Rename(int position, String source, String target, String chain) {
+            this.position = position;
+            this.source = source;
+            this.target = target;
+            this.chain = chain;
+        }
+
+        private void apply(ObjectNode node) {
+            JsonNode value = node.remove(source);
+            if (target != null) {
+                node.set(target, value);
+            }
+        }
+    }
+}
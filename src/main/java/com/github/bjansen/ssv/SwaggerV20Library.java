@@ -17,20 +17,34 @@ package com.github.bjansen.ssv;
 
 import com.github.bjansen.ssv.formats.*;
 import com.github.bjansen.ssv.keywords.*;
+import com.github.fge.jackson.NodeType;
 import com.github.fge.jsonschema.cfg.ValidationConfiguration;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.keyword.syntax.checkers.SyntaxChecker;
 import com.github.fge.jsonschema.core.messages.JsonSchemaSyntaxMessageBundle;
 import com.github.fge.jsonschema.core.report.ListReportProvider;
 import com.github.fge.jsonschema.core.report.LogLevel;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.format.FormatAttribute;
 import com.github.fge.jsonschema.format.draftv3.DateAttribute;
+import com.github.fge.jsonschema.keyword.digest.Digester;
+import com.github.fge.jsonschema.keyword.validator.KeywordValidator;
+import com.github.fge.jsonschema.keyword.validator.KeywordValidatorFactory;
 import com.github.fge.jsonschema.library.DraftV4Library;
+import com.github.fge.jsonschema.library.Keyword;
 import com.github.fge.jsonschema.library.Library;
+import com.github.fge.jsonschema.library.LibraryBuilder;
 import com.github.fge.jsonschema.main.JsonSchemaFactory;
 import com.github.fge.jsonschema.messages.JsonSchemaValidationBundle;
+import com.github.fge.jsonschema.processors.data.FullData;
 import com.github.fge.msgsimple.bundle.MessageBundle;
 import com.github.fge.msgsimple.bundle.PropertiesBundle;
 import com.github.fge.msgsimple.load.MessageBundleLoader;
 import com.github.fge.msgsimple.load.MessageBundles;
 
+import java.util.EnumSet;
+import java.util.Map;
+
 import static com.github.fge.msgsimple.load.MessageBundles.getBundle;
 
 /**
@@ -43,9 +57,28 @@ class SwaggerV20Library {
 
     private static final String OAI_V2_METASCHEMA_URI = "https://openapis.org/specification/versions/2.0#";
 
+    private static Library get(SwaggerValidatorConfiguration configuration) {
+        Library library = get();
+
+        if (configuration.isJavaRegex()) {
+            library = useJavaRegex(library);
+        }
+        if (configuration.isDiscriminatorDispatch()) {
+            library = useDiscriminatorDispatch(library);
+        }
+        if (configuration.isShortCircuitCombinators()) {
+            library = useShortCircuitCombinators(library, configuration.isAdaptiveBranchOrdering());
+        }
+        if (configuration.getKeywordProfiler() != null) {
+            library = profile(library, configuration.getKeywordProfiler());
+        }
+
+        return library;
+    }
+
     private static Library get() {
-        // The discriminator validator holds state that may persist in the event of a runtime exception etc.
-        // Re-create the library to ensure this state doesn't persist between validations.
+        // A new library is built for each factory, i.e. once per SwaggerValidator, so keyword
+        // validators never share state between validators.
         return DraftV4Library.get().thaw()
             .addFormatAttribute("int32", Int32Attribute.getInstance())
             .addFormatAttribute("int64", Int64Attribute.getInstance())
@@ -64,17 +97,136 @@ class SwaggerV20Library {
     }
 
     /**
+     * Replaces the validators of the keywords that evaluate regular expressions with a JavaScript engine.
+     */
+    private static Library useJavaRegex(Library library) {
+        return library.thaw()
+            .addKeyword(replaceValidator(library, "pattern", JavaPatternValidator.class))
+            .addKeyword(replaceValidator(library, "additionalProperties", JavaAdditionalPropertiesValidator.class))
+            .freeze();
+    }
+
+    /**
+     * Makes the {@code discriminator} keyword validate objects against the definition it names.
+     */
+    private static Library useDiscriminatorDispatch(Library library) {
+        KeywordValidatorFactory allOf = library.getValidators().entries().get("allOf");
+        DiscriminatorValidator.Dispatch dispatch = new DiscriminatorValidator.Dispatch();
+
+        return library.thaw()
+            .addKeyword(DiscriminatorKeyword.getDispatchingInstance(dispatch))
+            .addKeyword(replaceValidator(library, "allOf",
+                node -> dispatch.trackSubtypes(allOf.getKeywordValidator(node))))
+            .freeze();
+    }
+
+    /**
+     * Replaces the validators of {@code anyOf} and {@code oneOf} with validators that stop as soon as the outcome
+     * is known.
+     */
+    private static Library useShortCircuitCombinators(Library library, boolean adaptive) {
+        return library.thaw()
+            .addKeyword(replaceValidator(library, "anyOf", node -> new ShortCircuitAnyOfValidator(adaptive)))
+            .addKeyword(replaceValidator(library, "oneOf", node -> new ShortCircuitOneOfValidator(adaptive)))
+            .freeze();
+    }
+
+    private static Keyword replaceValidator(Library library, String name, Class<? extends KeywordValidator> validator) {
+        return Keyword.newBuilder(name)
+            .withSyntaxChecker(library.getSyntaxCheckers().entries().get(name))
+            .withDigester(library.getDigesters().entries().get(name))
+            .withValidatorClass(validator)
+            .freeze();
+    }
+
+    private static Keyword replaceValidator(Library library, String name, KeywordValidatorFactory validator) {
+        return Keyword.newBuilder(name)
+            .withSyntaxChecker(library.getSyntaxCheckers().entries().get(name))
+            .withDigester(library.getDigesters().entries().get(name))
+            .withValidatorFactory(validator)
+            .freeze();
+    }
+
+    /**
+     * Wraps each keyword validator and format attribute of the given library, so that their invocations are
+     * recorded by the given profiler.
+     */
+    private static Library profile(Library library, KeywordProfiler profiler) {
+        LibraryBuilder builder = library.thaw();
+        Map<String, SyntaxChecker> syntaxCheckers = library.getSyntaxCheckers().entries();
+        Map<String, Digester> digesters = library.getDigesters().entries();
+
+        for (Map.Entry<String, KeywordValidatorFactory> validator : library.getValidators().entries().entrySet()) {
+            String name = validator.getKey();
+            KeywordValidatorFactory factory = validator.getValue();
+
+            builder.addKeyword(Keyword.newBuilder(name)
+                .withSyntaxChecker(syntaxCheckers.get(name))
+                .withDigester(digesters.get(name))
+                .withValidatorFactory(node -> {
+                    KeywordValidator delegate = factory.getKeywordValidator(node);
+                    return (processor, report, bundle, data) -> {
+                        long start = System.nanoTime();
+                        try {
+                            delegate.validate(processor, report, bundle, data);
+                        } finally {
+                            profiler.record(name, data.getSchema().getPointer(), System.nanoTime() - start);
+                        }
+                    };
+                })
+                .freeze());
+        }
+
+        for (Map.Entry<String, FormatAttribute> format : library.getFormatAttributes().entries().entrySet()) {
+            String name = "format:" + format.getKey();
+            FormatAttribute delegate = format.getValue();
+
+            builder.addFormatAttribute(format.getKey(), new FormatAttribute() {
+                @Override
+                public EnumSet<NodeType> supportedTypes() {
+                    return delegate.supportedTypes();
+                }
+
+                @Override
+                public void validate(ProcessingReport report, MessageBundle bundle, FullData data)
+                    throws ProcessingException {
+                    long start = System.nanoTime();
+                    try {
+                        delegate.validate(report, bundle, data);
+                    } finally {
+                        profiler.record(name, data.getSchema().getPointer(), System.nanoTime() - start);
+                    }
+                }
+            });
+        }
+
+        return builder.freeze();
+    }
+
+    /**
+     * Same as {@link #schemaFactory(LogLevel, LogLevel, SwaggerValidatorConfiguration)} with the default
+     * configuration.
+     */
+    static JsonSchemaFactory schemaFactory(final LogLevel logLevel, final LogLevel exceptionThreshold) {
+        return schemaFactory(logLevel, exceptionThreshold, SwaggerValidatorConfiguration.byDefault());
+    }
+
+    /**
+     * Builds a new factory. This is an expensive operation, callers are expected to reuse the result.
+     *
      * @param logLevel log level
      * @param exceptionThreshold exception threshold
+     * @param configuration the configuration of the validator, which can change how keywords are validated
      * @return A {@link JsonSchemaFactory} instance configured with the OpenAPI / Swagger V20 metaschema library suitable
      * for use in validating OpenAPI / Swagger documents
      */
-    static JsonSchemaFactory schemaFactory(final LogLevel logLevel, final LogLevel exceptionThreshold) {
+    static JsonSchemaFactory schemaFactory(final LogLevel logLevel, final LogLevel exceptionThreshold,
+                                           final SwaggerValidatorConfiguration configuration) {
         return JsonSchemaFactory
             .newBuilder()
             .setValidationConfiguration(
                 ValidationConfiguration.newBuilder()
-                    .setDefaultLibrary(OAI_V2_METASCHEMA_URI, SwaggerV20Library.get())
+                    .setDefaultLibrary(OAI_V2_METASCHEMA_URI, SwaggerV20Library.get(configuration))
                     .setSyntaxMessages(getBundle(SwaggerV20Library.SyntaxBundle.class))
                     .setValidationMessages(getBundle(SwaggerV20Library.ValidationBundle.class))
                     .freeze())
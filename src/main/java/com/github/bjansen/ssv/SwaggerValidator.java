@@ -1,30 +1,64 @@
 package com.github.bjansen.ssv;
 
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.github.fge.jsonschema.core.exceptions.JsonReferenceException;
+import com.fasterxml.jackson.databind.node.LongNode;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.github.fge.jackson.jsonpointer.JsonPointer;
+import com.github.fge.jackson.jsonpointer.JsonPointerException;
+import com.github.fge.jackson.jsonpointer.TokenResolver;
 import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.load.SchemaLoader;
+import com.github.fge.jsonschema.core.processing.Processor;
+import com.github.fge.jsonschema.core.report.ListProcessingReport;
 import com.github.fge.jsonschema.core.report.LogLevel;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
 import com.github.fge.jsonschema.core.report.ProcessingReport;
-import com.github.fge.jsonschema.main.JsonSchema;
-import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import com.github.fge.jsonschema.core.tree.SchemaTree;
+import com.github.fge.jsonschema.core.tree.SimpleJsonTree;
+import com.github.fge.jsonschema.processors.data.FullData;
+import com.github.fge.msgsimple.bundle.MessageBundle;
+import com.github.fge.msgsimple.load.MessageBundles;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableMap;
 import io.swagger.util.Json;
 import io.swagger.util.Yaml;
-import org.apache.commons.lang3.tuple.Pair;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class SwaggerValidator {
 
-    private static final Map<Pair<JsonNode, String>, JsonSchema> SCHEMA_CACHE = new HashMap<>();
-
     private static final Map<String, String> TRANSFORMATIONS =
         ImmutableMap.<String, String>builder()
             .put("x-additionalItems", "additionalItems")
@@ -41,19 +75,53 @@ public class SwaggerValidator {
             .put("x-not", "not")
             .build();
 
-    private final JsonNode schemaObject;
+    private static final String DEFINITIONS = "definitions";
+
+    private static final SpecTransformer TRANSFORMER = new SpecTransformer(TRANSFORMATIONS);
+
+    private static final MessageBundle VALIDATION_MESSAGES =
+        MessageBundles.getBundle(SwaggerV20Library.ValidationBundle.class);
+
+    private final SpecTransformer transformer;
+
+    /**
+     * The current spec and everything derived from it. Replaced as a whole by {@link #reload(JsonNode)}, so
+     * each operation reads it once and works on a consistent snapshot.
+     */
+    private volatile Spec spec;
+
+    private final Processor<FullData, FullData> processor;
+
+    private final boolean fastValidation;
+
+    private final SwaggerValidatorConfiguration configuration;
 
-    private SwaggerValidator(JsonNode schemaObject, Map<String, String> customTransformations) {
-        Map<String, String> mergedTransformations;
+    private final Executor executor;
+
+    private final ValidationListener listener;
+
+    private SwaggerValidator(JsonNode schemaObject, Map<String, String> customTransformations,
+                             SwaggerValidatorConfiguration configuration) {
+        SpecTransformer transformer;
 
         if (customTransformations.isEmpty()) {
-            mergedTransformations = TRANSFORMATIONS;
+            transformer = TRANSFORMER;
         } else {
-            mergedTransformations = new LinkedHashMap<>(customTransformations);
+            Map<String, String> mergedTransformations = new LinkedHashMap<>(customTransformations);
             mergedTransformations.putAll(TRANSFORMATIONS);
+            transformer = new SpecTransformer(mergedTransformations);
         }
 
-        this.schemaObject = transform(schemaObject, mergedTransformations);
+        this.transformer = transformer;
+        this.spec = new Spec(schemaObject, transformer.transform(schemaObject, configuration.getExecutor()),
+            buildSchemaCache(configuration), new ConcurrentHashMap<>());
+        this.processor = SwaggerV20Library
+            .schemaFactory(LogLevel.INFO, LogLevel.FATAL, configuration)
+            .getProcessor();
+        this.fastValidation = configuration.isFastValidation();
+        this.configuration = configuration;
+        this.executor = configuration.getExecutor();
+        this.listener = configuration.getValidationListener();
     }
 
     /**
@@ -64,7 +132,15 @@ public class SwaggerValidator {
      * @throws IOException if the Swagger spec is not a valid JSON object
      */
     public static SwaggerValidator forJsonSchema(Reader swaggerSpec) throws IOException {
-        return new SwaggerValidator(Json.mapper().readTree(swaggerSpec), Collections.emptyMap());
+        return forJsonSchema(swaggerSpec, SwaggerValidatorConfiguration.byDefault());
+    }
+
+    /**
+     * Same as {@link #forJsonSchema(Reader)} but with a custom configuration.
+     */
+    public static SwaggerValidator forJsonSchema(Reader swaggerSpec, SwaggerValidatorConfiguration configuration)
+        throws IOException {
+        return new SwaggerValidator(Json.mapper().readTree(swaggerSpec), Collections.emptyMap(), configuration);
     }
 
     /**
@@ -75,7 +151,15 @@ public class SwaggerValidator {
      * @throws IOException if the Swagger spec is not a valid YAML object
      */
     public static SwaggerValidator forYamlSchema(Reader swaggerSpec) throws IOException {
-        return new SwaggerValidator(Yaml.mapper().readTree(swaggerSpec), Collections.emptyMap());
+        return forYamlSchema(swaggerSpec, SwaggerValidatorConfiguration.byDefault());
+    }
+
+    /**
+     * Same as {@link #forYamlSchema(Reader)} but with a custom configuration.
+     */
+    public static SwaggerValidator forYamlSchema(Reader swaggerSpec, SwaggerValidatorConfiguration configuration)
+        throws IOException {
+        return new SwaggerValidator(Yaml.mapper().readTree(swaggerSpec), Collections.emptyMap(), configuration);
     }
 
     /**
@@ -83,12 +167,23 @@ public class SwaggerValidator {
      * This factory method also allows defining extra transformations to be made on the
      * validated input, which will be applied <i>before</i> the built-in {@link #TRANSFORMATIONS}.
      *
+     * <p>The given {@code jsonNode} is not modified, but the parts of it that don't have to be transformed are
+     * shared with the validator, so it should not be modified afterwards either.</p>
+     *
      * @param jsonNode the Swagger spec (parsed manually)
      * @param customTransformations a map of properties renamings to apply to definitions
      * @return a validator for that spec
      */
     public static SwaggerValidator forJsonNode(JsonNode jsonNode, Map<String, String> customTransformations) {
-        return new SwaggerValidator(jsonNode, customTransformations);
+        return forJsonNode(jsonNode, customTransformations, SwaggerValidatorConfiguration.byDefault());
+    }
+
+    /**
+     * Same as {@link #forJsonNode(JsonNode, Map)} but with a custom configuration.
+     */
+    public static SwaggerValidator forJsonNode(JsonNode jsonNode, Map<String, String> customTransformations,
+                                               SwaggerValidatorConfiguration configuration) {
+        return new SwaggerValidator(jsonNode, customTransformations, configuration);
     }
 
     /**
@@ -113,7 +208,81 @@ public class SwaggerValidator {
             throw new IOException("Payload is empty");
         }
 
+        long start = System.nanoTime();
         JsonNode jsonNode = jsonMapper.readTree(jsonPayload);
+        onParsing(jsonPayload.length(), start);
+
+        return validate(jsonNode, definitionPointer);
+    }
+
+    /**
+     * Same as {@link #validate(String, String)} but with a UTF-8 (or UTF-16/32) encoded payload,
+     * which is parsed without being decoded to a {@code String} first.
+     */
+    public ProcessingReport validate(byte[] jsonPayload, String definitionPointer) throws ProcessingException, IOException {
+        if (jsonPayload == null || jsonPayload.length == 0) {
+            throw new IOException("Payload is empty");
+        }
+
+        long start = System.nanoTime();
+        JsonNode jsonNode = Json.mapper().readTree(jsonPayload);
+        onParsing(jsonPayload.length, start);
+
+        return validate(jsonNode, definitionPointer);
+    }
+
+    /**
+     * Same as {@link #validate(byte[], String)} with the remaining bytes of {@code jsonPayload}.
+     * The position of the buffer is left unchanged.
+     */
+    public ProcessingReport validate(ByteBuffer jsonPayload, String definitionPointer) throws ProcessingException, IOException {
+        if (jsonPayload == null || !jsonPayload.hasRemaining()) {
+            throw new IOException("Payload is empty");
+        }
+
+        long start = System.nanoTime();
+        JsonNode jsonNode;
+
+        if (jsonPayload.hasArray()) {
+            jsonNode = Json.mapper().readTree(jsonPayload.array(),
+                jsonPayload.arrayOffset() + jsonPayload.position(), jsonPayload.remaining());
+        } else {
+            jsonNode = Json.mapper().readTree(new ByteBufferBackedInputStream(jsonPayload.duplicate()));
+        }
+        onParsing(jsonPayload.remaining(), start);
+
+        return validate(jsonNode, definitionPointer);
+    }
+
+    private void onParsing(int payloadSize, long start) {
+        if (listener != ValidationListener.NONE) {
+            listener.onParsing(payloadSize, System.nanoTime() - start);
+        }
+    }
+
+    private static int parsedBytes(long byteCount) {
+        return (int) Math.min(byteCount, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #validate(byte[], String)} with a payload read from {@code jsonPayload}.
+     */
+    public ProcessingReport validate(InputStream jsonPayload, String definitionPointer) throws ProcessingException, IOException {
+        if (jsonPayload == null) {
+            throw new IOException("Payload is empty");
+        }
+
+        long start = System.nanoTime();
+        JsonNode jsonNode;
+
+        try (JsonParser parser = Json.mapper().getFactory().createParser(jsonPayload)) {
+            jsonNode = Json.mapper().readTree(parser);
+            if (jsonNode == null || jsonNode.isMissingNode()) {
+                throw new IOException("Payload is empty");
+            }
+            // The size of a stream is only known once it is read
+            onParsing(parsedBytes(parser.currentLocation().getByteOffset()), start);
+        }
 
         return validate(jsonNode, definitionPointer);
     }
@@ -140,53 +309,656 @@ public class SwaggerValidator {
     }
 
     /**
-     * Applies all the {@link #TRANSFORMATIONS} on each property contained in each definition
-     * of the given schema.
+     * Tells whether the given {@code jsonPayload} is valid against the definition located at
+     * {@code definitionPointer}, i.e. whether {@link #validate(JsonNode, String)} would return a successful
+     * report. This is cheaper than building the report: validation stops at the first error, and no messages
+     * are kept.
      *
-     * @param schema the Swagger schema containing transformations to apply (x-oneOf, etc).
-     * @param transformations property renamings to be applied to definitions
-     * @return the patched schema
+     * @param jsonPayload       the JSON payload (as a JsonNode) to validate
+     * @param definitionPointer the path to the schema object the payload should be validated against,
+     *                          for example {@code /definitions/User}
+     * @return {@code true} if the payload is valid, {@code false} otherwise
+     * @throws ProcessingException in case a processing error occurred during validation
      */
-    private JsonNode transform(JsonNode schema, Map<String, String> transformations) {
-        if (schema.has("definitions")) {
-            for (JsonNode definition : schema.get("definitions")) {
-                transformRecursively(definition, transformations);
+    public boolean isValid(JsonNode jsonPayload, String definitionPointer) throws ProcessingException {
+        return getSchema(definitionPointer).isValid(jsonPayload);
+    }
+
+    /**
+     * Compiles the definition located at {@code definitionPointer}, and returns a validator bound to it.
+     * This is useful when payloads are always validated against the same definition, for example in a given
+     * route: the returned validator doesn't have to look up the definition on each validation.
+     *
+     * <p>The returned validator keeps its compiled definition, even if it is evicted from the cache of
+     * this validator.</p>
+     *
+     * @param definitionPointer the path to the schema object payloads should be validated against,
+     *                          for example {@code /definitions/User}
+     * @return a validator for this definition
+     * @throws ProcessingException if the definition does not exist or could not be compiled
+     */
+    public DefinitionValidator forDefinition(String definitionPointer) throws ProcessingException {
+        CompiledDefinition schema = getSchema(definitionPointer);
+        schema.precompile();
+        return new DefinitionValidator(definitionPointer, schema);
+    }
+
+    /**
+     * Validates each of the given {@code jsonPayloads} against the definition located at
+     * {@code definitionPointer}. The definition is looked up once, and the validation of each payload stops at
+     * its first error: instead of a full report, the result of each payload only tells whether it is valid, and
+     * its first error. {@link #validate(JsonNode, String)} describes all the errors of a payload.
+     *
+     * @param jsonPayloads      the JSON payloads (as JsonNodes) to validate
+     * @param definitionPointer the path to the schema object the payloads should be validated against,
+     *                          for example {@code /definitions/User}
+     * @return a validation result for each payload, in the same order as the payloads
+     * @throws ProcessingException in case a processing error occurred during validation
+     */
+    public List<ValidationResult> validateAll(Iterable<JsonNode> jsonPayloads, String definitionPointer)
+        throws ProcessingException {
+        CompiledDefinition schema = getSchema(definitionPointer);
+        List<ValidationResult> results = jsonPayloads instanceof Collection
+            ? new ArrayList<>(((Collection<JsonNode>) jsonPayloads).size())
+            : new ArrayList<>();
+
+        for (JsonNode jsonPayload : jsonPayloads) {
+            results.add(new ValidationResult(results.size(), schema.firstError(jsonPayload)));
+        }
+
+        return results;
+    }
+
+    /**
+     * Same as {@link #validateAll(Iterable, String)}, but payloads are read from a stream. If the stream is
+     * {@linkplain Stream#parallel() parallel}, payloads are validated in parallel, and results are still returned
+     * in the same order as the payloads.
+     *
+     * @param jsonPayloads      the JSON payloads (as JsonNodes) to validate
+     * @param definitionPointer the path to the schema object the payloads should be validated against,
+     *                          for example {@code /definitions/User}
+     * @return a validation result for each payload, in the same order as the payloads
+     * @throws ProcessingException in case a processing error occurred during validation
+     */
+    public List<ValidationResult> validateAll(Stream<JsonNode> jsonPayloads, String definitionPointer)
+        throws ProcessingException {
+        CompiledDefinition schema = getSchema(definitionPointer);
+
+        try {
+            // The stream doesn't tell the index of its elements, which are only known once collected
+            List<ProcessingMessage> errors = jsonPayloads
+                .map(jsonPayload -> firstError(schema, jsonPayload))
+                .collect(Collectors.toList());
+            List<ValidationResult> results = new ArrayList<>(errors.size());
+
+            for (ProcessingMessage error : errors) {
+                results.add(new ValidationResult(results.size(), error));
+            }
+
+            return results;
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof ProcessingException) {
+                throw (ProcessingException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Validates the items of a large payload while it is read, without loading the whole payload in memory.
+     *
+     * <p>The payload is either a JSON array, or a sequence of JSON values (for example one per line, like in
+     * NDJSON). Each item is validated against the {@code items} schema of the array definition located at
+     * {@code definitionPointer}, and its report is passed to {@code handler} before the next item is read.
+     * References are followed up to the array definition. Once the payload is read, the number of items is checked
+     * against {@code minItems} and {@code maxItems}, and a violation is passed to {@code handler} with the number of
+     * items as index. Other keywords that apply to the whole array (like {@code uniqueItems}) are not checked.</p>
+     *
+     * @param jsonPayload       the JSON payload to validate
+     * @param definitionPointer the path to the array definition the payload should be validated against,
+     *                          for example {@code /definitions/Users}
+     * @param handler           receives the report of each item
+     * @return {@code true} if all the items are valid, {@code false} otherwise
+     * @throws ProcessingException in case a processing error occurred during validation, or if the definition
+     *                             doesn't have an {@code items} schema
+     * @throws IOException         if the payload is not valid JSON
+     */
+    public boolean validateItems(InputStream jsonPayload, String definitionPointer, ItemReportHandler handler)
+        throws ProcessingException, IOException {
+        if (jsonPayload == null) {
+            throw new IOException("Payload is empty");
+        }
+
+        Spec current = spec;
+        String arrayPointer = arrayPointer(current, definitionPointer);
+        CompiledDefinition schema = getSchema(current, arrayPointer + "/items");
+        boolean valid = true;
+        long index = 0;
+
+        try (JsonParser parser = Json.mapper().getFactory().createParser(jsonPayload)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+
+            if (array) {
+                token = parser.nextToken();
             }
+
+            while (token != null && !(array && token == JsonToken.END_ARRAY)) {
+                long start = System.nanoTime();
+                long offset = parser.currentTokenLocation().getByteOffset();
+                // Only the current item is kept in memory
+                JsonNode item = Json.mapper().readTree(parser);
+                onParsing(parsedBytes(parser.currentLocation().getByteOffset() - offset), start);
+
+                ProcessingReport report = schema.validate(item, false);
+                valid &= report.isSuccess();
+                handler.handle(index++, report);
+                token = parser.nextToken();
+            }
+
+            if (array && (token == null || parser.nextToken() != null)) {
+                throw new JsonParseException(parser, "Expected a single JSON array");
+            }
+        }
+
+        ProcessingReport report = checkItemCount(current, arrayPointer, index);
+        if (!report.isSuccess()) {
+            valid = false;
+            handler.handle(index, report);
+        }
+
+        return valid;
+    }
+
+    /**
+     * Follows the chain of references starting at {@code definitionPointer}, like the fge engine does, up to the
+     * array definition whose {@code items} the payload is validated against.
+     */
+    private static String arrayPointer(Spec current, String definitionPointer) throws ProcessingException {
+        Set<String> chain = new HashSet<>();
+        String pointer = definitionPointer;
+        JsonNode definition = definition(current, pointer);
+
+        while (definition.path("$ref").isTextual()) {
+            if (!chain.add(pointer)) {
+                throw new ProcessingException("Definition " + definitionPointer + " has a reference loop");
+            }
+            pointer = localPointer(definitionPointer, definition.get("$ref").textValue());
+            definition = definition(current, pointer);
+        }
+        if (!definition.path("items").isObject()) {
+            throw new ProcessingException("Definition " + definitionPointer + " has no items schema");
         }
 
-        return schema;
+        return pointer;
     }
 
-    private void transformRecursively(JsonNode node, Map<String, String> transformations) {
-        if (node.isObject()) {
-            ObjectNode objectNode = (ObjectNode) node;
+    private static JsonNode definition(Spec current, String definitionPointer) throws ProcessingException {
+        JsonNode definition;
 
-            transformations.forEach((from, to) -> {
-                if (objectNode.has(from)) {
-                    objectNode.set(to, objectNode.get(from));
-                    objectNode.remove(from);
-                }
-            });
+        try {
+            definition = current.transformed.at(definitionPointer);
+        } catch (IllegalArgumentException e) {
+            throw new ProcessingException("Unknown definition " + definitionPointer, e);
+        }
+        if (definition.isMissingNode()) {
+            throw new ProcessingException("Unknown definition " + definitionPointer);
         }
 
-        for (JsonNode child : node) {
-            transformRecursively(child, transformations);
+        return definition;
+    }
+
+    private static String localPointer(String definitionPointer, String ref) throws ProcessingException {
+        try {
+            URI uri = new URI(ref);
+            if (uri.getScheme() == null && uri.getRawSchemeSpecificPart().isEmpty() && uri.getFragment() != null) {
+                return uri.getFragment();
+            }
+        } catch (URISyntaxException e) {
+            throw new ProcessingException("Definition " + definitionPointer + " has an invalid reference " + ref, e);
+        }
+
+        throw new ProcessingException("Definition " + definitionPointer + " references " + ref
+            + ", which is not part of the spec");
+    }
+
+    /**
+     * Checks the number of items of a streamed array against the {@code minItems} and {@code maxItems} of its
+     * definition, with the same messages as the fge engine.
+     */
+    private static ProcessingReport checkItemCount(Spec current, String arrayPointer, long count)
+        throws ProcessingException {
+        JsonNode array = current.transformed.at(arrayPointer);
+        ProcessingReport report = new ListProcessingReport(LogLevel.INFO, LogLevel.FATAL);
+        FullData data;
+
+        try {
+            data = new FullData(current.tree.setPointer(new JsonPointer(arrayPointer)),
+                new SimpleJsonTree(MissingNode.getInstance()));
+        } catch (JsonPointerException e) {
+            throw new ProcessingException("Unknown definition " + arrayPointer, e);
+        }
+
+        JsonNode minItems = array.path("minItems");
+        if (minItems.canConvertToLong() && count < minItems.longValue()) {
+            report.error(itemCountMessage(data, "minItems", "err.common.minItems.arrayTooShort", minItems, count));
+        }
+
+        JsonNode maxItems = array.path("maxItems");
+        if (maxItems.canConvertToLong() && count > maxItems.longValue()) {
+            report.error(itemCountMessage(data, "maxItems", "err.common.maxItems.arrayTooLarge", maxItems, count));
         }
+
+        return report;
     }
 
-    private JsonSchema getSchema(String definitionPointer) throws ProcessingException {
-        Pair<JsonNode, String> key = Pair.of(schemaObject, definitionPointer);
+    private static ProcessingMessage itemCountMessage(FullData data, String keyword, String key, JsonNode bound,
+                                                      long count) {
+        ProcessingMessage message = data.newMessage()
+            .put("domain", "validation")
+            .put("keyword", keyword)
+            .setMessage(String.format(VALIDATION_MESSAGES.getMessage(key), bound.longValue(), count))
+            .put(keyword, bound);
 
-        JsonSchemaFactory jsonSchemaFactory = SwaggerV20Library.schemaFactory(LogLevel.INFO, LogLevel.FATAL);
+        // The fge engine counts items with an int, streams can be longer
+        return count > Integer.MAX_VALUE
+            ? message.put("found", LongNode.valueOf(count))
+            : message.put("found", (int) count);
+    }
 
-        if (!SCHEMA_CACHE.containsKey(key)) {
+    private static ProcessingMessage firstError(CompiledDefinition schema, JsonNode jsonPayload) {
+        try {
+            return schema.firstError(jsonPayload);
+        } catch (ProcessingException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Compiles every schema declared in the {@code definitions} section of the spec, so that the first
+     * validations against each of them do less work. Compiling a definition loads it, checks the syntax of its
+     * schema and subschemas, and builds the validators of its top-level keywords (like {@code required},
+     * {@code items} or {@code pattern}), by validating an empty sample of each type allowed by the definition.
+     * With fast validation, the native validators of the whole definition are also compiled. The fge engine still
+     * builds the validators of nested schemas, like the schema of each property, and of referenced definitions,
+     * when the first payload reaches them.
+     *
+     * <p>Definitions are compiled in parallel if an executor was {@linkplain
+     * SwaggerValidatorConfiguration.Builder#setExecutor(Executor) configured}.</p>
+     *
+     * @return the time spent compiling each definition, indexed by definition pointer, in the spec order
+     * @throws ProcessingException if a definition could not be compiled
+     */
+    public Map<String, Duration> precompile() throws ProcessingException {
+        return precompile(executor != null ? executor : Runnable::run);
+    }
+
+    /**
+     * Same as {@link #precompile()}, but definitions are compiled in parallel by the given {@code executor}.
+     * This method returns once all definitions are compiled.
+     *
+     * @param executor the executor used to compile definitions
+     * @return the time spent compiling each definition, indexed by definition pointer, in the spec order
+     * @throws ProcessingException if a definition could not be compiled
+     */
+    public Map<String, Duration> precompile(Executor executor) throws ProcessingException {
+        return precompile(spec.graph.getDefinitions(), executor);
+    }
+
+    /**
+     * Same as {@link #precompile(Executor)}, but only compiles the given definitions. For example,
+     * {@code precompile(getDefinitionGraph().getReachableDefinitions(), executor)} skips the definitions that
+     * are not used by the spec.
+     *
+     * <p>Definitions are submitted after the definitions they reference, so that they can reuse their
+     * compiled references.</p>
+     *
+     * @param definitionPointers the pointers to the definitions to compile
+     * @param executor           the executor used to compile definitions
+     * @return the time spent compiling each definition, indexed by definition pointer, in the order of
+     * {@code definitionPointers}
+     * @throws ProcessingException if a definition could not be compiled
+     */
+    public Map<String, Duration> precompile(Collection<String> definitionPointers, Executor executor)
+        throws ProcessingException {
+        Spec current = spec;
+        Map<String, CompletableFuture<Duration>> compilations = new HashMap<>();
+        Set<String> pending = new LinkedHashSet<>(definitionPointers);
+
+        for (String definitionPointer : current.graph.getCompilationOrder()) {
+            if (pending.remove(definitionPointer)) {
+                compilations.put(definitionPointer,
+                    CompletableFuture.supplyAsync(() -> precompile(current, definitionPointer), executor));
+            }
+        }
+        for (String definitionPointer : pending) {
+            // Not a definition of the spec, compiling it reports an unknown definition
+            compilations.put(definitionPointer,
+                CompletableFuture.supplyAsync(() -> precompile(current, definitionPointer), executor));
+        }
+
+        Map<String, Duration> durations = new LinkedHashMap<>();
+
+        for (String definitionPointer : definitionPointers) {
             try {
-                SCHEMA_CACHE.put(key, jsonSchemaFactory.getJsonSchema(schemaObject, definitionPointer));
-            } catch (JsonReferenceException e) {
-                throw new ProcessingException("Unknown definition " + definitionPointer, e);
+                durations.put(definitionPointer, compilations.get(definitionPointer).join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof ProcessingException) {
+                    throw (ProcessingException) e.getCause();
+                }
+                throw e;
+            }
+        }
+
+        return durations;
+    }
+
+    private Duration precompile(Spec current, String definitionPointer) {
+        long start = System.nanoTime();
+
+        try {
+            getSchema(current, definitionPointer).precompile();
+        } catch (ProcessingException e) {
+            throw new CompletionException(e);
+        }
+
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * Replaces the spec of this validator, keeping the compiled schemas that are still valid.
+     *
+     * <p>Definitions are compared with those of the current spec, by hash first and then by content. Only the
+     * definitions that changed, and the ones that reference them (directly or not), are transformed and compiled
+     * again. Compiled schemas of the other definitions are kept, and bound to the new spec: their native
+     * validators are reused as is, and the fge engine resolves them against the new spec on first use. Definitions
+     * that reference other parts of the spec, like {@code #/parameters/...}, are recompiled when these parts
+     * change.</p>
+     *
+     * <p>The new spec replaces the current one atomically: validations running when this method is called finish
+     * against the current spec, and the following ones use the new spec. Validators returned by
+     * {@link #forDefinition(String)} keep the spec they were created with, and keep it in memory as long as they
+     * are referenced. The fge engine also keeps the schemas it validated against, and so parts of the previous
+     * spec, in its own cache of at most 512 schemas, until they are evicted. Cache statistics are reset.</p>
+     *
+     * <p>The spec must not be modified after being passed to this method, since the next reload compares it with
+     * its replacement.</p>
+     *
+     * @param newSpec the new Swagger spec
+     * @return the pointers to the definitions of the new spec that have to be compiled again, in the spec order:
+     * the definitions that were added or modified, and the ones that depend on a modified or removed definition
+     */
+    public synchronized Set<String> reload(JsonNode newSpec) {
+        Spec current = spec;
+        Map<String, Integer> hashes = current.hashes != null ? current.hashes : hashDefinitions(current.source);
+        Map<String, Integer> newHashes = hashDefinitions(newSpec);
+
+        Map<String, JsonNode> unchanged = new HashMap<>();
+        Set<String> changed = new LinkedHashSet<>();
+        boolean added = false;
+        JsonNode transformedDefinitions = current.transformed.path(DEFINITIONS);
+
+        for (Map.Entry<String, Integer> definition : newHashes.entrySet()) {
+            String name = definition.getKey();
+
+            if (definition.getValue().equals(hashes.get(name))
+                && newSpec.get(DEFINITIONS).get(name).equals(current.source.get(DEFINITIONS).get(name))) {
+                unchanged.put(name, transformedDefinitions.get(name));
+            } else {
+                changed.add(JsonPointer.of(DEFINITIONS, name).toString());
+                added |= !hashes.containsKey(name);
+            }
+        }
+
+        Set<String> removed = new LinkedHashSet<>();
+        for (String name : hashes.keySet()) {
+            if (!newHashes.containsKey(name)) {
+                removed.add(JsonPointer.of(DEFINITIONS, name).toString());
+            }
+        }
+
+        Spec reloaded = new Spec(newSpec, transformer.retransform(newSpec, unchanged),
+            buildSchemaCache(configuration), new ConcurrentHashMap<>(), newHashes);
+        boolean sameSections = sameSections(current.source, newSpec);
+        Set<String> invalid = new LinkedHashSet<>();
+
+        if (configuration.isDiscriminatorDispatch() && !(changed.isEmpty() && removed.isEmpty() && sameSections)) {
+            // Possible values of discriminators depend on the whole spec
+            invalid.addAll(current.graph.getDefinitions());
+            invalid.addAll(reloaded.graph.getDefinitions());
+        } else {
+            for (String definition : changed) {
+                invalidate(definition, current.graph, reloaded.graph, invalid);
+            }
+            for (String definition : removed) {
+                invalidate(definition, current.graph, reloaded.graph, invalid);
+            }
+            // References that didn't resolve may now target an added definition
+            if (added || !sameSections) {
+                for (String definition : current.graph.getExternalReferrers()) {
+                    invalidate(definition, current.graph, reloaded.graph, invalid);
+                }
+                for (String definition : reloaded.graph.getExternalReferrers()) {
+                    invalidate(definition, current.graph, reloaded.graph, invalid);
+                }
+            }
+        }
+
+        for (Map.Entry<String, CompiledDefinition> entry : current.cache.asMap().entrySet()) {
+            JsonPointer pointer = reusablePointer(entry.getKey(), reloaded.graph, invalid);
+            if (pointer != null) {
+                // Bound to the new spec, so that the fge engine resolves references against it
+                reloaded.cache.put(entry.getKey(), entry.getValue().withSchema(reloaded.tree.setPointer(pointer)));
+            }
+        }
+        for (Map.Entry<String, FastSchema> entry : current.fastReferences.entrySet()) {
+            if (reusablePointer(entry.getKey(), reloaded.graph, invalid) != null) {
+                reloaded.fastReferences.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        spec = reloaded;
+
+        Set<String> recompiled = new LinkedHashSet<>(reloaded.graph.getDefinitions());
+        recompiled.retainAll(invalid);
+        return Collections.unmodifiableSet(recompiled);
+    }
+
+    /**
+     * Adds {@code definitionPointer} to {@code invalid}, along with the definitions that reference it in the
+     * previous or in the new spec.
+     */
+    private static void invalidate(String definitionPointer, DefinitionGraph previous, DefinitionGraph next,
+                                   Set<String> invalid) {
+        invalid.add(definitionPointer);
+        invalid.addAll(previous.getTransitiveDependents(definitionPointer));
+        invalid.addAll(next.getTransitiveDependents(definitionPointer));
+    }
+
+    /**
+     * @return {@code pointer}, parsed, if a schema compiled for it can be reused after a reload, i.e. if it targets
+     * a definition (or a part of it) that still exists and was not invalidated. {@code null} otherwise.
+     */
+    private static JsonPointer reusablePointer(String pointer, DefinitionGraph graph, Set<String> invalid) {
+        JsonPointer parsed;
+        String definition;
+
+        try {
+            parsed = new JsonPointer(pointer);
+            Iterator<TokenResolver<JsonNode>> tokens = parsed.iterator();
+            if (!tokens.hasNext() || !DEFINITIONS.equals(tokens.next().getToken().getRaw()) || !tokens.hasNext()) {
+                return null;
             }
+            definition = JsonPointer.of(DEFINITIONS, tokens.next().getToken().getRaw()).toString();
+        } catch (JsonPointerException e) {
+            return null;
         }
 
-        return SCHEMA_CACHE.get(key);
+        return graph.getDefinitions().contains(definition) && !invalid.contains(definition) ? parsed : null;
+    }
+
+    /**
+     * @return the compiled schema of a definition, if it is in the cache
+     */
+    CompiledDefinition cachedSchema(String definitionPointer) {
+        return spec.cache.getIfPresent(definitionPointer);
+    }
+
+    /**
+     * @return the hash of each definition of {@code spec}, indexed by name
+     */
+    private static Map<String, Integer> hashDefinitions(JsonNode spec) {
+        Map<String, Integer> hashes = new LinkedHashMap<>();
+
+        for (Map.Entry<String, JsonNode> definition : spec.path(DEFINITIONS).properties()) {
+            hashes.put(definition.getKey(), definition.getValue().hashCode());
+        }
+
+        return hashes;
+    }
+
+    /**
+     * @return whether both specs are the same, except for their definitions
+     */
+    private static boolean sameSections(JsonNode spec, JsonNode other) {
+        if (spec.size() - (spec.has(DEFINITIONS) ? 1 : 0) != other.size() - (other.has(DEFINITIONS) ? 1 : 0)) {
+            return false;
+        }
+
+        for (Map.Entry<String, JsonNode> section : spec.properties()) {
+            if (!section.getKey().equals(DEFINITIONS) && !section.getValue().equals(other.get(section.getKey()))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the transformed spec currently used by this validator
+     */
+    JsonNode transformedSpec() {
+        return spec.transformed;
+    }
+
+    /**
+     * @return the references between the definitions of the spec, computed when the validator was built
+     */
+    public DefinitionGraph getDefinitionGraph() {
+        return spec.graph;
+    }
+
+    /**
+     * Returns statistics about the compiled schemas cache of this validator: hits, misses (i.e. compilations),
+     * evictions, and time spent compiling schemas.
+     *
+     * @return a snapshot of the cache statistics
+     */
+    public CacheStats getCacheStats() {
+        return spec.cache.stats();
+    }
+
+    private static Cache<String, CompiledDefinition> buildSchemaCache(SwaggerValidatorConfiguration configuration) {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+
+        if (configuration.getMaxCachedSchemas() != -1) {
+            builder.maximumSize(configuration.getMaxCachedSchemas());
+        }
+        if (configuration.isSoftCachedSchemas()) {
+            builder.softValues();
+        }
+
+        return builder.build();
+    }
+
+    private CompiledDefinition getSchema(String definitionPointer) throws ProcessingException {
+        return getSchema(spec, definitionPointer);
+    }
+
+    private CompiledDefinition getSchema(Spec current, String definitionPointer) throws ProcessingException {
+        try {
+            return current.cache.get(definitionPointer, () -> timeCompilation(current, definitionPointer));
+        } catch (ExecutionException e) {
+            throw (ProcessingException) e.getCause();
+        }
+    }
+
+    private CompiledDefinition timeCompilation(Spec current, String definitionPointer) throws ProcessingException {
+        if (listener == ValidationListener.NONE) {
+            return compileSchema(current, definitionPointer);
+        }
+
+        long start = System.nanoTime();
+        boolean success = false;
+
+        try {
+            CompiledDefinition schema = compileSchema(current, definitionPointer);
+            success = true;
+            return schema;
+        } finally {
+            listener.onCompilation(definitionPointer, System.nanoTime() - start, success);
+        }
+    }
+
+    private CompiledDefinition compileSchema(Spec current, String definitionPointer) throws ProcessingException {
+        SchemaTree schema;
+
+        try {
+            schema = current.tree.setPointer(new JsonPointer(definitionPointer));
+        } catch (JsonPointerException e) {
+            throw new ProcessingException("Unknown definition " + definitionPointer, e);
+        }
+        if (schema.getNode().isMissingNode()) {
+            throw new ProcessingException("Unknown definition " + definitionPointer);
+        }
+
+        FastSchema fastSchema = fastValidation
+            ? new FastSchemaCompiler(current.transformed, configuration, current.fastReferences)
+                .compile(definitionPointer)
+            : null;
+
+        return new CompiledDefinition(definitionPointer, processor, schema, fastSchema, listener);
+    }
+
+    /**
+     * A spec, and the schemas compiled from it.
+     */
+    private static final class Spec {
+
+        /**
+         * The spec as given by the user.
+         */
+        private final JsonNode source;
+
+        private final JsonNode transformed;
+
+        private final SchemaTree tree;
+
+        private final DefinitionGraph graph;
+
+        private final Cache<String, CompiledDefinition> cache;
+
+        private final ConcurrentMap<String, FastSchema> fastReferences;
+
+        /**
+         * Hashes of the definitions of {@link #source}, or {@code null} if they were not computed yet.
+         */
+        private final Map<String, Integer> hashes;
+
+        private Spec(JsonNode source, JsonNode transformed, Cache<String, CompiledDefinition> cache,
+                     ConcurrentMap<String, FastSchema> fastReferences) {
+            this(source, transformed, cache, fastReferences, null);
+        }
+
+        private Spec(JsonNode source, JsonNode transformed, Cache<String, CompiledDefinition> cache,
+                     ConcurrentMap<String, FastSchema> fastReferences, Map<String, Integer> hashes) {
+            this.source = source;
+            this.transformed = transformed;
+            this.tree = new SchemaLoader().load(transformed);
+            this.graph = DefinitionGraph.of(transformed);
+            this.cache = cache;
+            this.fastReferences = fastReferences;
+            this.hashes = hashes;
+        }
     }
 }
@@ -0,0 +1,290 @@
+package com.github.bjansen.ssv;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Options used to build a {@link SwaggerValidator}.
+ *
+ * <p>Instances are immutable, use {@link #newBuilder()} to create a custom configuration:</p>
+ *
+ * <pre>
+ *     SwaggerValidatorConfiguration cfg = SwaggerValidatorConfiguration.newBuilder()
+ *         .setMaxCachedSchemas(100)
+ *         .freeze();
+ * </pre>
+ */
+public final class SwaggerValidatorConfiguration {
+
+    private static final SwaggerValidatorConfiguration DEFAULT = newBuilder().freeze();
+
+    private final long maxCachedSchemas;
+    private final boolean softCachedSchemas;
+    private final boolean fastValidation;
+    private final boolean javaRegex;
+    private final boolean discriminatorDispatch;
+    private final boolean shortCircuitCombinators;
+    private final boolean adaptiveBranchOrdering;
+    private final Executor executor;
+    private final ValidationListener validationListener;
+    private final KeywordProfiler keywordProfiler;
+
+    private SwaggerValidatorConfiguration(Builder builder) {
+        this.maxCachedSchemas = builder.maxCachedSchemas;
+        this.softCachedSchemas = builder.softCachedSchemas;
+        this.fastValidation = builder.fastValidation;
+        this.javaRegex = builder.javaRegex;
+        this.discriminatorDispatch = builder.discriminatorDispatch;
+        this.shortCircuitCombinators = builder.shortCircuitCombinators;
+        this.adaptiveBranchOrdering = builder.adaptiveBranchOrdering;
+        this.executor = builder.executor;
+        this.validationListener = builder.validationListener;
+        this.keywordProfiler = builder.keywordProfiler;
+    }
+
+    /**
+     * @return the default configuration
+     */
+    public static SwaggerValidatorConfiguration byDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return a builder initialized with the default values
+     */
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the maximum number of compiled schemas kept by a validator, or {@code -1} if unbounded
+     */
+    public long getMaxCachedSchemas() {
+        return maxCachedSchemas;
+    }
+
+    /**
+     * @return whether compiled schemas are softly referenced, and can be reclaimed by the garbage collector
+     */
+    public boolean isSoftCachedSchemas() {
+        return softCachedSchemas;
+    }
+
+    /**
+     * @return whether definitions are also compiled to native validators, used before the fge engine
+     */
+    public boolean isFastValidation() {
+        return fastValidation;
+    }
+
+    /**
+     * @return whether regular expressions are evaluated by {@link java.util.regex} instead of a JavaScript engine
+     */
+    public boolean isJavaRegex() {
+        return javaRegex;
+    }
+
+    /**
+     * @return whether the {@code discriminator} keyword validates objects against the definition it names
+     */
+    public boolean isDiscriminatorDispatch() {
+        return discriminatorDispatch;
+    }
+
+    /**
+     * @return whether {@code anyOf} and {@code oneOf} stop evaluating branches as soon as the outcome is known
+     */
+    public boolean isShortCircuitCombinators() {
+        return shortCircuitCombinators;
+    }
+
+    /**
+     * @return whether the branches of {@code anyOf} and {@code oneOf} that matched most often are evaluated first
+     */
+    public boolean isAdaptiveBranchOrdering() {
+        return adaptiveBranchOrdering;
+    }
+
+    /**
+     * @return the executor used to process definitions in parallel, or {@code null} if they are processed
+     * sequentially by the calling thread
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @return the listener notified of compilations and validations, {@link ValidationListener#NONE} by default
+     */
+    public ValidationListener getValidationListener() {
+        return validationListener;
+    }
+
+    /**
+     * @return the profiler recording the invocations of keywords, or {@code null} if profiling is disabled
+     */
+    public KeywordProfiler getKeywordProfiler() {
+        return keywordProfiler;
+    }
+
+    /**
+     * Builder for {@link SwaggerValidatorConfiguration}.
+     */
+    public static final class Builder {
+
+        private long maxCachedSchemas = -1;
+        private boolean softCachedSchemas;
+        private boolean fastValidation;
+        private boolean javaRegex;
+        private boolean discriminatorDispatch;
+        private boolean shortCircuitCombinators;
+        private boolean adaptiveBranchOrdering;
+        private Executor executor;
+        private ValidationListener validationListener = ValidationListener.NONE;
+        private KeywordProfiler keywordProfiler;
+
+        private Builder() {
+        }
+
+        /**
+         * Limits the number of compiled schemas kept by a validator. When the limit is reached, the least
+         * recently used schemas are evicted and will be compiled again on their next use.
+         *
+         * @param maxCachedSchemas the maximum number of cached schemas, or {@code -1} for no limit (the default)
+         * @return this builder
+         */
+        public Builder setMaxCachedSchemas(long maxCachedSchemas) {
+            if (maxCachedSchemas < -1) {
+                throw new IllegalArgumentException("Invalid cache size " + maxCachedSchemas);
+            }
+            this.maxCachedSchemas = maxCachedSchemas;
+            return this;
+        }
+
+        /**
+         * Keeps compiled schemas behind soft references, so they can be reclaimed under memory pressure.
+         *
+         * @param softCachedSchemas {@code true} to use soft references, {@code false} by default
+         * @return this builder
+         */
+        public Builder setSoftCachedSchemas(boolean softCachedSchemas) {
+            this.softCachedSchemas = softCachedSchemas;
+            return this;
+        }
+
+        /**
+         * Compiles definitions to native validators, which quickly accept valid payloads. Payloads they
+         * reject, as well as definitions using unsupported keywords or formats, are validated by the fge
+         * engine, so reports are the same as without this option.
+         *
+         * @param fastValidation {@code true} to enable native validators, {@code false} by default
+         * @return this builder
+         */
+        public Builder setFastValidation(boolean fastValidation) {
+            this.fastValidation = fastValidation;
+            return this;
+        }
+
+        /**
+         * Evaluates the regular expressions of the {@code pattern} and {@code patternProperties} keywords with
+         * {@link java.util.regex}, which is much faster than the JavaScript engine used by default. Expressions are
+         * translated from ECMA 262 and compiled once. The JavaScript engine is still used to check the syntax of
+         * expressions, and to select the schemas that apply to properties matching {@code patternProperties}.
+         *
+         * @param javaRegex {@code true} to use {@link java.util.regex}, {@code false} by default
+         * @return this builder
+         */
+        public Builder setJavaRegex(boolean javaRegex) {
+            this.javaRegex = javaRegex;
+            return this;
+        }
+
+        /**
+         * Validates objects against the definition named by their {@code discriminator} property, in addition to
+         * the definition holding the discriminator. The possible values of a discriminator are the name of its
+         * definition and the names of the definitions that extend it through {@code allOf}, so polymorphic
+         * payloads are validated against a single subtype instead of trying each branch of an {@code x-oneOf}.
+         *
+         * <p>The syntax of discriminators is checked as well: they must name a required string property.</p>
+         *
+         * @param discriminatorDispatch {@code true} to dispatch on discriminators, {@code false} by default
+         * @return this builder
+         */
+        public Builder setDiscriminatorDispatch(boolean discriminatorDispatch) {
+            this.discriminatorDispatch = discriminatorDispatch;
+            return this;
+        }
+
+        /**
+         * Stops evaluating the branches of {@code x-anyOf} at the first match, and the branches of {@code x-oneOf}
+         * at the second match. Valid payloads and payloads that match no branch get the same reports as without
+         * this option, but the report of a payload matching several branches of a {@code oneOf} only contains
+         * the first two matches.
+         *
+         * @param shortCircuitCombinators {@code true} to short-circuit combinators, {@code false} by default
+         * @return this builder
+         */
+        public Builder setShortCircuitCombinators(boolean shortCircuitCombinators) {
+            this.shortCircuitCombinators = shortCircuitCombinators;
+            return this;
+        }
+
+        /**
+         * Evaluates first the branches of {@code x-anyOf} and {@code x-oneOf} that matched most often, so that
+         * short-circuiting happens sooner. Only used with {@link #setShortCircuitCombinators(boolean)}.
+         *
+         * @param adaptiveBranchOrdering {@code true} to reorder branches, {@code false} by default
+         * @return this builder
+         */
+        public Builder setAdaptiveBranchOrdering(boolean adaptiveBranchOrdering) {
+            this.adaptiveBranchOrdering = adaptiveBranchOrdering;
+            return this;
+        }
+
+        /**
+         * Processes definitions in parallel, which reduces the startup time of validators for very large specs.
+         * The executor is used to transform definitions when the validator is created, and to compile them in
+         * {@link SwaggerValidator#precompile()}. Results don't depend on the executor.
+         *
+         * @param executor an executor, like {@link java.util.concurrent.ForkJoinPool#commonPool()}, or
+         *                 {@code null} to process definitions in the calling thread (the default)
+         * @return this builder
+         */
+        public Builder setExecutor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        /**
+         * Notifies a listener of each compilation and validation, for example to collect metrics with an
+         * {@link InMemoryValidationMetrics}.
+         *
+         * @param validationListener a listener, or {@link ValidationListener#NONE} (the default)
+         * @return this builder
+         */
+        public Builder setValidationListener(ValidationListener validationListener) {
+            if (validationListener == null) {
+                throw new IllegalArgumentException("The validation listener can't be null");
+            }
+            this.validationListener = validationListener;
+            return this;
+        }
+
+        /**
+         * Records the invocations of each keyword validator and format attribute, to find expensive parts of a spec.
+         *
+         * @param keywordProfiler a profiler, or {@code null} to disable profiling (the default)
+         * @return this builder
+         */
+        public Builder setKeywordProfiler(KeywordProfiler keywordProfiler) {
+            this.keywordProfiler = keywordProfiler;
+            return this;
+        }
+
+        /**
+         * @return an immutable configuration
+         */
+        public SwaggerValidatorConfiguration freeze() {
+            return new SwaggerValidatorConfiguration(this);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.bjansen.ssv;
+
+/**
+ * Receives events about the compilation of definitions and the validation of payloads, for example to
+ * collect metrics. See {@link InMemoryValidationMetrics} for a simple implementation.
+ *
+ * <p>Listeners are called synchronously by the threads that compile and validate, so implementations must be
+ * thread-safe and fast. All methods do nothing by default.</p>
+ */
+public interface ValidationListener {
+
+    /**
+     * A listener that ignores all events, used when none is {@linkplain
+     * SwaggerValidatorConfiguration.Builder#setValidationListener(ValidationListener) configured}.
+     */
+    ValidationListener NONE = new ValidationListener() {
+    };
+
+    /**
+     * Called after a definition was compiled, i.e. when it was not found in the cache of compiled schemas.
+     *
+     * @param definitionPointer the compiled definition
+     * @param durationNanos     the time spent compiling the definition
+     * @param success           {@code false} if the definition could not be compiled
+     */
+    default void onCompilation(String definitionPointer, long durationNanos, boolean success) {
+    }
+
+    /**
+     * Called after a payload was parsed, when it was given as text, bytes or a stream, and after each item
+     * read by {@link SwaggerValidator#validateItems(java.io.InputStream, String, ItemReportHandler)}.
+     *
+     * @param payloadSize   the size of the payload, in characters or bytes (read from the stream, for streams)
+     * @param durationNanos the time spent parsing the payload
+     */
+    default void onParsing(int payloadSize, long durationNanos) {
+    }
+
+    /**
+     * Called after a payload was validated.
+     *
+     * @param definitionPointer the definition the payload was validated against
+     * @param durationNanos     the time spent validating the payload
+     * @param valid             whether the payload is valid
+     */
+    default void onValidation(String definitionPointer, long durationNanos, boolean valid) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.bjansen.ssv;
+
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+
+/**
+ * The outcome of the validation of one payload of a batch, returned by
+ * {@link SwaggerValidator#validateAll(Iterable, String)}.
+ *
+ * <p>Unlike a {@link com.github.fge.jsonschema.core.report.ProcessingReport}, it only keeps the first error of
+ * invalid payloads, so that large batches don't keep every message in memory. Instances are immutable.</p>
+ */
+public final class ValidationResult {
+
+    private final int index;
+
+    private final ProcessingMessage firstError;
+
+    ValidationResult(int index, ProcessingMessage firstError) {
+        this.index = index;
+        this.firstError = firstError;
+    }
+
+    /**
+     * @return the position of the payload in the batch, starting at 0
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return {@code true} if the payload is valid, {@code false} otherwise
+     */
+    public boolean isValid() {
+        return firstError == null;
+    }
+
+    /**
+     * @return the first error found in the payload, which is also the first error of the report
+     * {@link SwaggerValidator#validate(com.fasterxml.jackson.databind.JsonNode, String)} would return, or
+     * {@code null} if the payload is valid
+     */
+    public ProcessingMessage getFirstError() {
+        return firstError;
+    }
+
+    @Override
+    public String toString() {
+        return index + ": " + (firstError == null ? "valid" : firstError.getMessage());
+    }
+}
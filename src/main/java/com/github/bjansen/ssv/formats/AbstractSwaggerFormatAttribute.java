@@ -0,0 +1,43 @@
+package com.github.bjansen.ssv.formats;
+
+import com.github.fge.jackson.NodeType;
+import com.github.fge.jsonschema.core.report.LogLevel;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.format.AbstractFormatAttribute;
+import com.github.fge.jsonschema.processors.data.FullData;
+import com.github.fge.msgsimple.bundle.MessageBundle;
+
+/**
+ * Base class for the Swagger format attributes, which avoids building messages that won't be read.
+ */
+abstract class AbstractSwaggerFormatAttribute extends AbstractFormatAttribute {
+
+    protected AbstractSwaggerFormatAttribute(final String fmt, final NodeType first, final NodeType... other) {
+        super(fmt, first, other);
+    }
+
+    /**
+     * Tells whether a message logged at {@code level} would be kept or thrown by {@code report}. Warnings
+     * don't change the outcome of a validation, so they don't have to be built when this returns false.
+     */
+    protected static boolean isReported(final ProcessingReport report, final LogLevel level) {
+        return level.compareTo(report.getLogLevel()) >= 0
+            || level.compareTo(report.getExceptionThreshold()) >= 0;
+    }
+
+    /**
+     * Same as {@link #newMsg(FullData, MessageBundle, String)}, but also sets the {@code key} of the message,
+     * and formats it with all the {@code arguments} at once instead of once per
+     * {@link ProcessingMessage#putArgument(String, Object)} call. Arguments other than {@code value} should
+     * also be {@link ProcessingMessage#put(String, Object)} in the message.
+     */
+    protected final ProcessingMessage newMsg(final FullData data, final MessageBundle bundle, final String key,
+                                             final Object... arguments) {
+        final String message = String.format(bundle.getMessage(key), arguments);
+
+        return newMsg(data, bundle, key)
+            .put("key", key)
+            .put("message", message);
+    }
+}
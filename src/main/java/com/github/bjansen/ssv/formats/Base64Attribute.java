@@ -23,12 +23,19 @@ import com.github.fge.jsonschema.format.FormatAttribute;
 import com.github.fge.jsonschema.processors.data.FullData;
 import com.github.fge.msgsimple.bundle.MessageBundle;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 public class Base64Attribute extends AbstractFormatAttribute {
 
-    private static final Pattern BASE64_PATTERN = Pattern.compile("^(?:[A-Za-z0-9+/]{4})*(?:[A-Za-z0-9+/]{2}==|[A-Za-z0-9+/]{3}=)?$");
+    /**
+     * Whether each ASCII character belongs to the Base64 alphabet (padding excluded).
+     */
+    private static final boolean[] ALPHABET = new boolean[128];
+
+    static {
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            ALPHABET[alphabet.charAt(i)] = true;
+        }
+    }
 
     private static final FormatAttribute INSTANCE = new Base64Attribute();
 
@@ -45,11 +52,36 @@ public class Base64Attribute extends AbstractFormatAttribute {
                          final MessageBundle bundle,
                          final FullData data) throws ProcessingException {
         final String value = data.getInstance().getNode().textValue();
-        final Matcher matcher = BASE64_PATTERN.matcher(value);
 
-        if (!matcher.matches()) {
+        if (!isBase64(value)) {
             report.error(newMsg(data, bundle, "err.format.base64.invalid")
                 .put("key", "err.format.base64.invalid"));
         }
     }
+
+    /**
+     * Same as matching {@code ^(?:[A-Za-z0-9+/]{4})*(?:[A-Za-z0-9+/]{2}==|[A-Za-z0-9+/]{3}=)?$}, in a single pass
+     * and without the stack usage of a backtracking regex on large values.
+     */
+    static boolean isBase64(String value) {
+        int length = value.length();
+
+        if (length % 4 != 0) {
+            return false;
+        }
+
+        int padding = 0;
+        if (length > 0 && value.charAt(length - 1) == '=') {
+            padding = value.charAt(length - 2) == '=' ? 2 : 1;
+        }
+
+        for (int i = 0, end = length - padding; i < end; i++) {
+            char c = value.charAt(i);
+            if (c >= ALPHABET.length || !ALPHABET[c]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
 }
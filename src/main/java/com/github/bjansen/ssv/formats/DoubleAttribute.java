@@ -18,15 +18,15 @@ package com.github.bjansen.ssv.formats;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.github.fge.jackson.NodeType;
 import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.LogLevel;
 import com.github.fge.jsonschema.core.report.ProcessingReport;
-import com.github.fge.jsonschema.format.AbstractFormatAttribute;
 import com.github.fge.jsonschema.format.FormatAttribute;
 import com.github.fge.jsonschema.processors.data.FullData;
 import com.github.fge.msgsimple.bundle.MessageBundle;
 
 import java.math.BigDecimal;
 
-public final class DoubleAttribute extends AbstractFormatAttribute {
+public final class DoubleAttribute extends AbstractSwaggerFormatAttribute {
 
     private static final FormatAttribute INSTANCE = new DoubleAttribute();
 
@@ -44,14 +44,17 @@ public final class DoubleAttribute extends AbstractFormatAttribute {
                          final FullData data) throws ProcessingException {
         final JsonNode instance = data.getInstance().getNode();
 
+        if (instance.isDouble() || !isReported(report, LogLevel.WARNING)) {
+            // Values already parsed as doubles can't lose precision
+            return;
+        }
+
         final BigDecimal dec = instance.decimalValue();
         final BigDecimal converted = BigDecimal.valueOf(dec.doubleValue());
 
         if (dec.compareTo(converted) != 0) {
-            report.warn(newMsg(data, bundle, "warn.format.double.overflow")
-                .put("key", "warn.format.double.overflow")
-                .putArgument("value", instance)
-                .putArgument("converted", converted));
+            report.warn(newMsg(data, bundle, "warn.format.double.overflow", instance, converted)
+                .put("converted", converted));
         }
     }
 }
@@ -18,13 +18,15 @@ package com.github.bjansen.ssv.formats;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.github.fge.jackson.NodeType;
 import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.LogLevel;
 import com.github.fge.jsonschema.core.report.ProcessingReport;
-import com.github.fge.jsonschema.format.AbstractFormatAttribute;
 import com.github.fge.jsonschema.format.FormatAttribute;
 import com.github.fge.jsonschema.processors.data.FullData;
 import com.github.fge.msgsimple.bundle.MessageBundle;
 
-public final class FloatAttribute extends AbstractFormatAttribute {
+import java.math.BigDecimal;
+
+public final class FloatAttribute extends AbstractSwaggerFormatAttribute {
 
     private static final FormatAttribute INSTANCE = new FloatAttribute();
 
@@ -40,17 +42,49 @@ public final class FloatAttribute extends AbstractFormatAttribute {
     public void validate(final ProcessingReport report,
                          final MessageBundle bundle,
                          final FullData data) throws ProcessingException {
+        if (!isReported(report, LogLevel.WARNING)) {
+            return;
+        }
+
         final JsonNode instance = data.getInstance().getNode();
 
+        if (instance.isDouble() && fitsFloat(instance.doubleValue())) {
+            return;
+        }
+
         final float f = instance.floatValue();
         final String original = String.valueOf(instance.decimalValue());
         final String parsed = String.valueOf(f);
 
         if (!original.equals(parsed)) {
-            report.warn(newMsg(data, bundle, "warn.format.float.overflow")
-                .put("key", "warn.format.float.overflow")
-                .putArgument("value", original)
-                .putArgument("converted", parsed));
+            report.warn(newMsg(data, bundle, "warn.format.float.overflow", original, parsed)
+                .put("value", original)
+                .put("converted", parsed));
+        }
+    }
+
+    /**
+     * Tells whether a value parsed as a double is written the same way once converted to a float, i.e. whether
+     * {@code String.valueOf(BigDecimal.valueOf(value))} equals {@code String.valueOf((float) value)}, without
+     * building these strings in the most common cases.
+     */
+    static boolean fitsFloat(final double value) {
+        final double abs = Math.abs(value);
+
+        if (abs >= 1e-3 && abs < 1e7) {
+            if (value == Math.rint(value)) {
+                // Integers below 2^24 are exact floats, written "<integer>.0" either way
+                return true;
+            }
+            // Double.toString() uses the same plain notation as BigDecimal in this range
+            return Double.toString(value).equals(Float.toString((float) value));
         }
+
+        if (abs >= 1e7) {
+            // Float.toString() uses a computerized scientific notation, BigDecimal.toString() doesn't
+            return false;
+        }
+
+        return String.valueOf(BigDecimal.valueOf(value)).equals(Float.toString((float) value));
     }
 }
@@ -18,13 +18,13 @@ package com.github.bjansen.ssv.formats;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.github.fge.jackson.NodeType;
 import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.report.LogLevel;
 import com.github.fge.jsonschema.core.report.ProcessingReport;
-import com.github.fge.jsonschema.format.AbstractFormatAttribute;
 import com.github.fge.jsonschema.format.FormatAttribute;
 import com.github.fge.jsonschema.processors.data.FullData;
 import com.github.fge.msgsimple.bundle.MessageBundle;
 
-public final class Int64Attribute extends AbstractFormatAttribute {
+public final class Int64Attribute extends AbstractSwaggerFormatAttribute {
 
     private static final FormatAttribute INSTANCE = new Int64Attribute();
 
@@ -42,10 +42,8 @@ public final class Int64Attribute extends AbstractFormatAttribute {
                          final FullData data) throws ProcessingException {
         final JsonNode instance = data.getInstance().getNode();
 
-        if (!instance.canConvertToLong()) {
-            report.warn(newMsg(data, bundle, "warn.format.int64.overflow")
-                .put("key", "warn.format.int64.overflow")
-                .putArgument("value", instance));
+        if (!instance.canConvertToLong() && isReported(report, LogLevel.WARNING)) {
+            report.warn(newMsg(data, bundle, "warn.format.int64.overflow", instance));
         }
     }
 }
@@ -1,12 +1,16 @@
 package com.github.bjansen.ssv.keywords;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.github.fge.jackson.NodeType;
 import com.github.fge.jackson.jsonpointer.JsonPointer;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
 import com.github.fge.jsonschema.core.keyword.syntax.checkers.AbstractSyntaxChecker;
 import com.github.fge.jsonschema.core.report.ProcessingReport;
 import com.github.fge.jsonschema.core.tree.SchemaTree;
+import com.github.fge.jsonschema.keyword.digest.helpers.SimpleDigester;
 import com.github.fge.jsonschema.library.Keyword;
 import com.github.fge.msgsimple.bundle.MessageBundle;
+import com.google.common.collect.Lists;
 
 import java.util.Collection;
 
@@ -25,6 +29,19 @@ public class DiscriminatorKeyword {
             .freeze();
     }
 
+    /**
+     * @param dispatch the state shared with the {@code allOf} validators of the same library
+     * @return a keyword that validates objects against the definition named by their discriminator property,
+     * see {@link DiscriminatorValidator}
+     */
+    public static Keyword getDispatchingInstance(DiscriminatorValidator.Dispatch dispatch) {
+        return Keyword.newBuilder("discriminator")
+            .withSyntaxChecker(DispatchingSyntaxChecker.INSTANCE)
+            .withDigester(new SimpleDigester("discriminator", NodeType.OBJECT))
+            .withValidatorFactory(node -> new DiscriminatorValidator(node, dispatch))
+            .freeze();
+    }
+
     private static class SyntaxChecker extends AbstractSyntaxChecker {
 
         private static final SyntaxChecker INSTANCE = new SyntaxChecker();
@@ -42,5 +59,51 @@ public class DiscriminatorKeyword {
             // nothing to do
         }
     }
-}
 
+    /**
+     * Checks that the discriminator is a required string property of the schema, as mandated by the spec.
+     */
+    private static class DispatchingSyntaxChecker extends AbstractSyntaxChecker {
+
+        private static final DispatchingSyntaxChecker INSTANCE = new DispatchingSyntaxChecker();
+
+        private DispatchingSyntaxChecker() {
+            super("discriminator", NodeType.STRING);
+        }
+
+        @Override
+        protected void checkValue(Collection<JsonPointer> collection,
+            MessageBundle messageBundle,
+            ProcessingReport processingReport,
+            SchemaTree schemaTree) throws ProcessingException {
+
+            String property = getNode(schemaTree).textValue();
+            JsonNode schema = schemaTree.getNode();
+            JsonNode properties = schema.path("properties");
+
+            if (property.isEmpty()) {
+                processingReport.error(newMsg(schemaTree, messageBundle, "err.swaggerv2.discriminator.empty"));
+            } else if (!properties.has(property)) {
+                processingReport.error(newMsg(schemaTree, messageBundle, "err.swaggerv2.discriminator.noProperty")
+                    .putArgument("value", property)
+                    .putArgument("possibleValues", Lists.newArrayList(properties.fieldNames())));
+            } else if (properties.get(property).has("type")
+                && !"string".equals(properties.get(property).get("type").textValue())) {
+                processingReport.error(newMsg(schemaTree, messageBundle, "err.swaggerv2.discriminator.wrongType")
+                    .putArgument("property", property));
+            } else if (!isRequired(schema, property)) {
+                processingReport.error(newMsg(schemaTree, messageBundle, "err.swaggerv2.discriminator.notRequired")
+                    .putArgument("property", property));
+            }
+        }
+
+        private static boolean isRequired(JsonNode schema, String property) {
+            for (JsonNode required : schema.path("required")) {
+                if (property.equals(required.textValue())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
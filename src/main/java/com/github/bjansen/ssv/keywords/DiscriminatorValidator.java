@@ -0,0 +1,276 @@
+package com.github.bjansen.ssv.keywords;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jackson.jsonpointer.JsonPointer;
+import com.github.fge.jackson.jsonpointer.JsonPointerException;
+import com.github.fge.jackson.jsonpointer.TokenResolver;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.processing.Processor;
+import com.github.fge.jsonschema.core.report.ListProcessingReport;
+import com.github.fge.jsonschema.core.report.LogLevel;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.core.tree.SchemaTree;
+import com.github.fge.jsonschema.keyword.validator.AbstractKeywordValidator;
+import com.github.fge.jsonschema.keyword.validator.KeywordValidator;
+import com.github.fge.jsonschema.processors.data.FullData;
+import com.github.fge.msgsimple.bundle.MessageBundle;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Validates objects against the definition named by their discriminator property, instead of trying every
+ * subtype of a polymorphic definition.
+ *
+ * <p>The possible values of the discriminator of a definition are its own name and the names of the definitions
+ * that extend it, i.e. that reference it (directly or not) in their {@code allOf}. They are computed once per spec.
+ * Discriminators of inline schemas accept the name of any definition.</p>
+ *
+ * <p>Validating against a subtype also validates against the definition holding the discriminator, through the
+ * {@code allOf} of the subtype. Payloads that are already being validated against a subtype are not dispatched
+ * again (which would loop), but their discriminator must still name that subtype or one of its own subtypes.
+ * To know about subtypes, {@code allOf} validators must be wrapped with {@link Dispatch#trackSubtypes}.</p>
+ */
+public final class DiscriminatorValidator extends AbstractKeywordValidator {
+
+    private static final String DEFINITIONS = "definitions";
+
+    private final String property;
+
+    private final Dispatch dispatch;
+
+    public DiscriminatorValidator(JsonNode digest, Dispatch dispatch) {
+        super("discriminator");
+        this.property = digest.get(keyword).textValue();
+        this.dispatch = dispatch;
+    }
+
+    @Override
+    public void validate(Processor<FullData, FullData> processor, ProcessingReport report,
+                         MessageBundle bundle, FullData data) throws ProcessingException {
+        JsonNode instance = data.getInstance().getNode();
+        JsonNode value = instance.get(property);
+
+        if (value == null) {
+            report.error(newMsg(data, bundle, "err.swaggerv2.discriminator.missing", property)
+                .put("property", property));
+            return;
+        }
+        if (!value.isTextual()) {
+            report.error(newMsg(data, bundle, "err.swaggerv2.discriminator.nonText", property)
+                .put("property", property));
+            return;
+        }
+
+        SchemaTree tree = data.getSchema();
+        Hierarchy hierarchy = dispatch.hierarchies.getUnchecked(tree.getBaseNode());
+        Map<String, JsonPointer> possibleValues = hierarchy.getPossibleValues(tree.getPointer());
+        JsonPointer subtype = validatedSubtype(instance, possibleValues);
+
+        if (subtype != null) {
+            // Already validated against a subtype, which must be compatible with the discriminator
+            possibleValues = hierarchy.getPossibleValues(subtype);
+        }
+
+        JsonPointer target = possibleValues.get(value.textValue());
+
+        if (target == null) {
+            String possibleNames = new TreeSet<>(possibleValues.keySet()).toString();
+            report.error(newMsg(data, bundle, "err.swaggerv2.discriminator.invalid", property, value.textValue(),
+                possibleNames)
+                .put("property", property)
+                .put("value", value.textValue())
+                .put("possibleValues", possibleNames));
+            return;
+        }
+        if (subtype != null || target.equals(tree.getPointer())) {
+            return;
+        }
+
+        ListProcessingReport subReport = new ListProcessingReport(report.getLogLevel(), LogLevel.FATAL);
+        processor.process(subReport, data.withSchema(tree.setPointer(target)));
+
+        if (!subReport.isSuccess()) {
+            report.error(newMsg(data, bundle, "err.swaggerv2.discriminator.fail", target)
+                .put("schema", target.toString())
+                .put("reports", subReport.asJson()));
+        }
+    }
+
+    /**
+     * @return the most specific definition, among {@code possibleValues}, that {@code instance} is being validated
+     * against as part of an {@code allOf}, or {@code null}
+     */
+    private JsonPointer validatedSubtype(JsonNode instance, Map<String, JsonPointer> possibleValues) {
+        // Subtypes are visited before the definitions they extend
+        for (Visit visit : Dispatch.VISITS.get()) {
+            if (visit.instance == instance && possibleValues.containsValue(visit.schemaPointer)) {
+                return visit.schemaPointer;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Same as {@link #newMsg(FullData, MessageBundle, String)}, but formats the message with all the
+     * {@code arguments} at once instead of once per {@link ProcessingMessage#putArgument(String, Object)} call.
+     */
+    private ProcessingMessage newMsg(FullData data, MessageBundle bundle, String key, Object... arguments) {
+        return newMsg(data, bundle, key)
+            .put("message", String.format(bundle.getMessage(key), arguments));
+    }
+
+    @Override
+    public String toString() {
+        return keyword + ": " + property;
+    }
+
+    /**
+     * The state shared by the discriminators and the {@code allOf}s of a validator.
+     */
+    public static final class Dispatch {
+
+        /**
+         * Possible values of discriminators, indexed by spec. Specs are compared by identity.
+         */
+        private final LoadingCache<JsonNode, Hierarchy> hierarchies = CacheBuilder.newBuilder()
+            .weakKeys()
+            .build(new CacheLoader<JsonNode, Hierarchy>() {
+                @Override
+                public Hierarchy load(JsonNode spec) {
+                    return new Hierarchy(spec);
+                }
+            });
+
+        /**
+         * The {@code allOf}s being validated by the current thread, outermost first. Visits are matched by
+         * instance identity, so validators can share this stack.
+         */
+        private static final ThreadLocal<Deque<Visit>> VISITS = ThreadLocal.withInitial(ArrayDeque::new);
+
+        /**
+         * Wraps the validator of an {@code allOf}, so that definitions holding a discriminator know when they are
+         * validated as part of one of their subtypes.
+         *
+         * @param allOf the validator of an {@code allOf}
+         * @return a validator that records the payloads it validates
+         */
+        public KeywordValidator trackSubtypes(KeywordValidator allOf) {
+            return new KeywordValidator() {
+                @Override
+                public void validate(Processor<FullData, FullData> processor, ProcessingReport report,
+                                     MessageBundle bundle, FullData data) throws ProcessingException {
+                    Deque<Visit> stack = VISITS.get();
+                    stack.addLast(new Visit(data.getInstance().getNode(), data.getSchema().getPointer()));
+                    try {
+                        allOf.validate(processor, report, bundle, data);
+                    } finally {
+                        stack.removeLast();
+                    }
+                }
+
+                @Override
+                public String toString() {
+                    return allOf.toString();
+                }
+            };
+        }
+    }
+
+    private static final class Visit {
+
+        private final JsonNode instance;
+        private final JsonPointer schemaPointer;
+
+        private Visit(JsonNode instance, JsonPointer schemaPointer) {
+            this.instance = instance;
+            this.schemaPointer = schemaPointer;
+        }
+    }
+
+    /**
+     * The definitions of a spec, and the definitions that extend each of them.
+     */
+    private static final class Hierarchy {
+
+        private final Map<String, JsonPointer> definitions = new HashMap<>();
+
+        private final Map<String, Set<String>> subtypes = new HashMap<>();
+
+        private final Map<JsonPointer, Map<String, JsonPointer>> possibleValues = new HashMap<>();
+
+        private Hierarchy(JsonNode spec) {
+            for (Map.Entry<String, JsonNode> definition : spec.path(DEFINITIONS).properties()) {
+                definitions.put(definition.getKey(), JsonPointer.of(DEFINITIONS, definition.getKey()));
+
+                for (JsonNode parent : definition.getValue().path("allOf")) {
+                    String name = definitionName(parent.path("$ref").textValue());
+                    if (name != null) {
+                        subtypes.computeIfAbsent(name, k -> new HashSet<>()).add(definition.getKey());
+                    }
+                }
+            }
+
+            for (Map.Entry<String, JsonPointer> definition : definitions.entrySet()) {
+                possibleValues.put(definition.getValue(), ImmutableMap.copyOf(collect(definition.getKey())));
+            }
+        }
+
+        private Map<String, JsonPointer> getPossibleValues(JsonPointer schemaPointer) {
+            Map<String, JsonPointer> values = possibleValues.get(schemaPointer);
+            return values != null ? values : definitions;
+        }
+
+        /**
+         * @return the given definition and the definitions that extend it
+         */
+        private Map<String, JsonPointer> collect(String name) {
+            Map<String, JsonPointer> collected = new HashMap<>();
+            Deque<String> pending = new ArrayDeque<>();
+            pending.add(name);
+
+            while (!pending.isEmpty()) {
+                String next = pending.removeFirst();
+                if (definitions.containsKey(next) && collected.put(next, definitions.get(next)) == null) {
+                    pending.addAll(subtypes.getOrDefault(next, Collections.<String>emptySet()));
+                }
+            }
+
+            return collected;
+        }
+
+        /**
+         * @return the name of the definition targeted by a local reference, or {@code null}
+         */
+        private static String definitionName(String ref) {
+            if (ref == null || !ref.startsWith("#/")) {
+                return null;
+            }
+            try {
+                JsonPointer pointer = new JsonPointer(ref.substring(1));
+                Iterator<TokenResolver<JsonNode>> tokens = pointer.iterator();
+                if (!tokens.hasNext() || !DEFINITIONS.equals(tokens.next().getToken().getRaw())
+                    || !tokens.hasNext()) {
+                    return null;
+                }
+                String name = tokens.next().getToken().getRaw();
+                return tokens.hasNext() ? null : name;
+            } catch (JsonPointerException e) {
+                return null;
+            }
+        }
+    }
+}
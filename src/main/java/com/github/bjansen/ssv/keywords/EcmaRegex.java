@@ -0,0 +1,313 @@
+package com.github.bjansen.ssv.keywords;
+
+import com.github.fge.jsonschema.core.util.RegexECMA262Helper;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * An ECMA 262 regular expression, as used by the {@code pattern} and {@code patternProperties} keywords, evaluated
+ * with {@link java.util.regex} instead of a JavaScript engine.
+ *
+ * <p>Expressions are translated to equivalent Java patterns, and compiled once. The few constructs that can't be
+ * translated (like octal escapes and backreferences) are still evaluated by
+ * {@link RegexECMA262Helper}. Like in a JavaScript engine, expressions are evaluated on UTF-16 code units:
+ * since {@link java.util.regex} matches supplementary characters as a whole, inputs containing surrogates are
+ * also evaluated by {@link RegexECMA262Helper} when the expression could match a single code unit of them.</p>
+ */
+public final class EcmaRegex {
+
+    /**
+     * White space and line terminators, as matched by {@code \s} in ECMA 262.
+     */
+    private static final String SPACES = "\\t\\n\\x0B\\f\\r \\u00a0\\u1680\\u2000-\\u200a\\u2028\\u2029\\u202f"
+        + "\\u205f\\u3000\\ufeff";
+
+    private static final String WORD_BOUNDARY = "(?:(?<=[a-zA-Z0-9_])(?![a-zA-Z0-9_])|(?<![a-zA-Z0-9_])(?=[a-zA-Z0-9_]))";
+
+    private static final String NOT_WORD_BOUNDARY = "(?:(?<=[a-zA-Z0-9_])(?=[a-zA-Z0-9_])|(?<![a-zA-Z0-9_])(?![a-zA-Z0-9_]))";
+
+    /**
+     * Escapes of UTF-16 surrogates.
+     */
+    private static final Pattern SURROGATE_ESCAPE = Pattern.compile("\\\\u[dD][89a-fA-F]");
+
+    private static final LoadingCache<String, EcmaRegex> CACHE = CacheBuilder.newBuilder()
+        .maximumSize(10_000)
+        .build(new CacheLoader<String, EcmaRegex>() {
+            @Override
+            public EcmaRegex load(String regex) {
+                return new EcmaRegex(regex);
+            }
+        });
+
+    private final String regex;
+
+    /**
+     * The translated pattern, or {@code null} if the expression is evaluated by a JavaScript engine.
+     */
+    private final Pattern pattern;
+
+    /**
+     * Whether the expression could match a lone surrogate, in which case {@link #pattern} can't be used on inputs
+     * containing surrogates.
+     */
+    private final boolean countsCodeUnits;
+
+    private EcmaRegex(String regex) {
+        this.regex = regex;
+        this.pattern = compile(translate(regex));
+        this.countsCodeUnits = countsCodeUnits(regex);
+    }
+
+    /**
+     * @param regex a valid ECMA 262 regular expression
+     * @return the compiled expression, which is cached
+     */
+    public static EcmaRegex of(String regex) {
+        return CACHE.getUnchecked(regex);
+    }
+
+    /**
+     * Same as {@code new RegExp(regex).test(input)} in JavaScript.
+     *
+     * @param input the string to test
+     * @return whether a part of {@code input} matches the expression
+     */
+    public boolean find(String input) {
+        if (pattern == null || countsCodeUnits && hasSurrogates(input)) {
+            return RegexECMA262Helper.regMatch(regex, input);
+        }
+        return pattern.matcher(input).find();
+    }
+
+    /**
+     * @return whether the expression is evaluated by {@link java.util.regex}
+     */
+    boolean isTranslated() {
+        return pattern != null;
+    }
+
+    /**
+     * Conservatively detects expressions that could match a single code unit of a surrogate pair: {@code .},
+     * negated classes and class escapes, and surrogates written in the expression.
+     */
+    private static boolean countsCodeUnits(String regex) {
+        return regex.indexOf('.') >= 0 || regex.contains("[^") || regex.contains("\\S") || regex.contains("\\D")
+            || regex.contains("\\W") || hasSurrogates(regex) || SURROGATE_ESCAPE.matcher(regex).find();
+    }
+
+    private static boolean hasSurrogates(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (Character.isSurrogate(s.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Pattern compile(String translated) {
+        if (translated == null) {
+            return null;
+        }
+        try {
+            return Pattern.compile(translated);
+        } catch (PatternSyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the equivalent Java pattern, or {@code null} if the expression can't be translated
+     */
+    static String translate(String regex) {
+        StringBuilder out = new StringBuilder(regex.length() + 16);
+        boolean inClass = false;
+        int length = regex.length();
+
+        for (int i = 0; i < length; i++) {
+            char c = regex.charAt(i);
+
+            if (c == '\\') {
+                if (++i == length) {
+                    return null;
+                }
+                i = translateEscape(regex, i, inClass, out);
+                if (i < 0) {
+                    return null;
+                }
+            } else if (inClass) {
+                if (c == ']') {
+                    inClass = false;
+                    out.append(c);
+                } else if (c == '[' || c == '&') {
+                    // Nested classes and intersections in Java, literals in ECMA 262
+                    out.append('\\').append(c);
+                } else {
+                    out.append(c);
+                }
+            } else if (c == '[') {
+                if (regex.startsWith("[^]", i)) {
+                    out.append("[\\s\\S]");
+                    i += 2;
+                } else if (regex.startsWith("[]", i)) {
+                    out.append("(?!)");
+                    i++;
+                } else {
+                    inClass = true;
+                    out.append(c);
+                    if (i + 1 < length && regex.charAt(i + 1) == '^') {
+                        out.append('^');
+                        i++;
+                    }
+                }
+            } else if (c == '.') {
+                out.append("[^\\n\\r\\u2028\\u2029]");
+            } else if (c == '$') {
+                out.append("\\z");
+            } else if (c == '{') {
+                int end = quantifierEnd(regex, i);
+                if (end < 0) {
+                    out.append("\\{");
+                } else {
+                    out.append(regex, i, end + 1);
+                    i = end;
+                }
+            } else if (c == '}') {
+                out.append("\\}");
+            } else {
+                out.append(c);
+            }
+        }
+
+        return inClass ? null : out.toString();
+    }
+
+    /**
+     * @param i the index of the escaped character
+     * @return the index of the last character of the escape sequence, or {@code -1} if it can't be translated
+     */
+    private static int translateEscape(String regex, int i, boolean inClass, StringBuilder out) {
+        char c = regex.charAt(i);
+
+        switch (c) {
+            case 'd':
+            case 'D':
+            case 'w':
+            case 'W':
+                out.append('\\').append(c);
+                return classEscapeEnd(regex, i, inClass, out);
+            case 's':
+                out.append('[').append(SPACES).append(']');
+                return classEscapeEnd(regex, i, inClass, out);
+            case 'S':
+                out.append("[^").append(SPACES).append(']');
+                return classEscapeEnd(regex, i, inClass, out);
+            case 'f':
+            case 'n':
+            case 'r':
+            case 't':
+                out.append('\\').append(c);
+                return i;
+            case 'v':
+                out.append("\\x0B");
+                return i;
+            case 'b':
+                out.append(inClass ? "\\x08" : WORD_BOUNDARY);
+                return i;
+            case 'B':
+                out.append(inClass ? "B" : NOT_WORD_BOUNDARY);
+                return i;
+            case '0':
+                if (i + 1 < regex.length() && Character.isDigit(regex.charAt(i + 1))) {
+                    return -1;
+                }
+                out.append("\\x00");
+                return i;
+            case 'c':
+                if (i + 1 < regex.length() && isAsciiLetter(regex.charAt(i + 1))) {
+                    out.append("\\c").append(regex.charAt(i + 1));
+                    return i + 1;
+                }
+                return -1;
+            case 'x':
+                return appendHex(regex, i, 2, out);
+            case 'u':
+                return appendHex(regex, i, 4, out);
+            default:
+                if (c >= '1' && c <= '9' || c == 'k') {
+                    // Backreferences are octal escapes when there is no such group, and match the empty string when
+                    // the group didn't participate in the match
+                    return -1;
+                }
+                // Identity escapes
+                out.append(String.format("\\x{%x}", (int) c));
+                return i;
+        }
+    }
+
+    /**
+     * In ECMA 262, a dash that follows a class escape in a character class is a literal, not a range.
+     */
+    private static int classEscapeEnd(String regex, int i, boolean inClass, StringBuilder out) {
+        if (inClass && i + 1 < regex.length() && regex.charAt(i + 1) == '-') {
+            out.append("\\-");
+            return i + 1;
+        }
+        return i;
+    }
+
+    private static int appendHex(String regex, int i, int digits, StringBuilder out) {
+        if (i + digits >= regex.length()) {
+            return -1;
+        }
+        for (int j = i + 1; j <= i + digits; j++) {
+            if (Character.digit(regex.charAt(j), 16) < 0) {
+                return -1;
+            }
+        }
+        out.append('\\').append(regex, i, i + digits + 1);
+        return i + digits;
+    }
+
+    /**
+     * @return the index of the closing brace of the quantifier starting at {@code i}, or {@code -1} if the brace
+     * at {@code i} is a literal
+     */
+    private static int quantifierEnd(String regex, int i) {
+        int j = i + 1;
+        int digits = 0;
+
+        while (j < regex.length() && isAsciiDigit(regex.charAt(j))) {
+            j++;
+            digits++;
+        }
+        if (digits == 0 || j == regex.length()) {
+            return -1;
+        }
+        if (regex.charAt(j) == ',') {
+            j++;
+            while (j < regex.length() && isAsciiDigit(regex.charAt(j))) {
+                j++;
+            }
+        }
+
+        return j < regex.length() && regex.charAt(j) == '}' ? j : -1;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    @Override
+    public String toString() {
+        return regex;
+    }
+}
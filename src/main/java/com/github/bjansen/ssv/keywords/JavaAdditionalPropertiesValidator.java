@@ -0,0 +1,102 @@
+package com.github.bjansen.ssv.keywords;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.github.fge.jackson.JacksonUtils;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.processing.Processor;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.keyword.validator.AbstractKeywordValidator;
+import com.github.fge.jsonschema.keyword.validator.common.AdditionalPropertiesValidator;
+import com.github.fge.jsonschema.processors.data.FullData;
+import com.github.fge.msgsimple.bundle.MessageBundle;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Same as {@link AdditionalPropertiesValidator}, but the regular expressions of {@code patternProperties} are
+ * compiled once by {@link EcmaRegex}.
+ */
+public final class JavaAdditionalPropertiesValidator extends AbstractKeywordValidator {
+
+    private final boolean additionalOK;
+
+    private final Set<String> properties;
+
+    private final ImmutableList<EcmaRegex> patternProperties;
+
+    private final String description;
+
+    public JavaAdditionalPropertiesValidator(final JsonNode digest) {
+        super("additionalProperties");
+        additionalOK = digest.get(keyword).booleanValue();
+
+        final ImmutableSet.Builder<String> names = ImmutableSet.builder();
+        for (final JsonNode node : digest.get("properties")) {
+            names.add(node.textValue());
+        }
+        properties = names.build();
+
+        final ImmutableList.Builder<EcmaRegex> patterns = ImmutableList.builder();
+        for (final JsonNode node : digest.get("patternProperties")) {
+            patterns.add(EcmaRegex.of(node.textValue()));
+        }
+        patternProperties = patterns.build();
+
+        description = new AdditionalPropertiesValidator(digest).toString();
+    }
+
+    @Override
+    public void validate(final Processor<FullData, FullData> processor,
+                         final ProcessingReport report,
+                         final MessageBundle bundle,
+                         final FullData data) throws ProcessingException {
+        if (additionalOK) {
+            return;
+        }
+
+        // Sorted like in the fge engine
+        Set<String> unwanted = null;
+
+        final Iterator<String> fields = data.getInstance().getNode().fieldNames();
+        while (fields.hasNext()) {
+            final String field = fields.next();
+
+            if (!properties.contains(field) && !matchesPattern(field)) {
+                if (unwanted == null) {
+                    unwanted = new TreeSet<>();
+                }
+                unwanted.add(field);
+            }
+        }
+
+        if (unwanted == null) {
+            return;
+        }
+
+        final ArrayNode node = JacksonUtils.nodeFactory().arrayNode();
+        for (final String field : unwanted) {
+            node.add(field);
+        }
+        report.error(newMsg(data, bundle, "err.common.additionalProperties.notAllowed")
+            .putArgument("unwanted", node));
+    }
+
+    private boolean matchesPattern(final String field) {
+        for (final EcmaRegex pattern : patternProperties) {
+            if (pattern.find(field)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.bjansen.ssv.keywords;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.processing.Processor;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.keyword.validator.AbstractKeywordValidator;
+import com.github.fge.jsonschema.keyword.validator.common.PatternValidator;
+import com.github.fge.jsonschema.processors.data.FullData;
+import com.github.fge.msgsimple.bundle.MessageBundle;
+
+/**
+ * Same as {@link PatternValidator}, but regular expressions are evaluated by {@link EcmaRegex}.
+ */
+public final class JavaPatternValidator extends AbstractKeywordValidator {
+
+    public JavaPatternValidator(final JsonNode digest) {
+        super("pattern");
+    }
+
+    @Override
+    public void validate(final Processor<FullData, FullData> processor,
+                         final ProcessingReport report,
+                         final MessageBundle bundle,
+                         final FullData data) throws ProcessingException {
+        final String regex = data.getSchema().getNode().get(keyword).textValue();
+        final String value = data.getInstance().getNode().textValue();
+
+        if (!EcmaRegex.of(regex).find(value)) {
+            report.error(newMsg(data, bundle, "err.common.pattern.noMatch")
+                .putArgument("regex", regex)
+                .putArgument("string", value));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return keyword;
+    }
+}
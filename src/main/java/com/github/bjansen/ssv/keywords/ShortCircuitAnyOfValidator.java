@@ -0,0 +1,29 @@
+package com.github.bjansen.ssv.keywords;
+
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.processors.data.FullData;
+import com.github.fge.msgsimple.bundle.MessageBundle;
+
+/**
+ * Same as fge's {@code AnyOfValidator}, but stops at the first matching branch.
+ */
+public final class ShortCircuitAnyOfValidator extends ShortCircuitSchemaArrayValidator {
+
+    /**
+     * @param adaptive whether the branches that matched most often are evaluated first
+     */
+    public ShortCircuitAnyOfValidator(boolean adaptive) {
+        super("anyOf", 1, adaptive);
+    }
+
+    @Override
+    boolean isValid(int matched) {
+        return matched > 0;
+    }
+
+    @Override
+    ProcessingMessage newFailure(FullData data, MessageBundle bundle, int matched, int size) {
+        return newMsg(data, bundle, "err.common.schema.noMatch")
+            .putArgument("nrSchemas", size);
+    }
+}
@@ -0,0 +1,31 @@
+package com.github.bjansen.ssv.keywords;
+
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.processors.data.FullData;
+import com.github.fge.msgsimple.bundle.MessageBundle;
+
+/**
+ * Same as fge's {@code OneOfValidator}, but stops at the second matching branch. In that case, the reported
+ * number of matches is 2, even if more branches would match.
+ */
+public final class ShortCircuitOneOfValidator extends ShortCircuitSchemaArrayValidator {
+
+    /**
+     * @param adaptive whether the branches that matched most often are evaluated first
+     */
+    public ShortCircuitOneOfValidator(boolean adaptive) {
+        super("oneOf", 2, adaptive);
+    }
+
+    @Override
+    boolean isValid(int matched) {
+        return matched == 1;
+    }
+
+    @Override
+    ProcessingMessage newFailure(FullData data, MessageBundle bundle, int matched, int size) {
+        return newMsg(data, bundle, "err.draftv4.oneOf.fail")
+            .putArgument("matched", matched)
+            .putArgument("nrSchemas", size);
+    }
+}
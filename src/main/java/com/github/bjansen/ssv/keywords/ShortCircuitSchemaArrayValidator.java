@@ -0,0 +1,158 @@
+package com.github.bjansen.ssv.keywords;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.fge.jackson.JacksonUtils;
+import com.github.fge.jackson.jsonpointer.JsonPointer;
+import com.github.fge.jsonschema.core.exceptions.ProcessingException;
+import com.github.fge.jsonschema.core.processing.Processor;
+import com.github.fge.jsonschema.core.report.ListProcessingReport;
+import com.github.fge.jsonschema.core.report.LogLevel;
+import com.github.fge.jsonschema.core.report.ProcessingMessage;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.core.tree.SchemaTree;
+import com.github.fge.jsonschema.keyword.validator.AbstractKeywordValidator;
+import com.github.fge.jsonschema.processors.data.FullData;
+import com.github.fge.msgsimple.bundle.MessageBundle;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Base class of {@code anyOf} and {@code oneOf} validators that stop evaluating branches as soon as the outcome
+ * is known, and optionally evaluate first the branches that matched most often.
+ *
+ * <p>Branches that were not evaluated are missing from the reports. Failures that require evaluating every
+ * branch, like an {@code anyOf} that matches nothing, are reported exactly like the fge validators, with
+ * branches in declaration order.</p>
+ */
+abstract class ShortCircuitSchemaArrayValidator extends AbstractKeywordValidator {
+
+    static final JsonNodeFactory FACTORY = JacksonUtils.nodeFactory();
+
+    /**
+     * Number of matches after which branches are sorted again.
+     */
+    private static final int REORDER_INTERVAL = 256;
+
+    /**
+     * Statistics of each schema using this keyword, or {@code null} if branches are evaluated in declaration order.
+     */
+    private final ConcurrentMap<JsonPointer, BranchOrder> orders;
+
+    /**
+     * The number of matches after which the remaining branches are not evaluated.
+     */
+    private final int maxMatches;
+
+    ShortCircuitSchemaArrayValidator(String keyword, int maxMatches, boolean adaptive) {
+        super(keyword);
+        this.maxMatches = maxMatches;
+        this.orders = adaptive ? new ConcurrentHashMap<>() : null;
+    }
+
+    @Override
+    public final void validate(Processor<FullData, FullData> processor, ProcessingReport report,
+                               MessageBundle bundle, FullData data) throws ProcessingException {
+        SchemaTree tree = data.getSchema();
+        JsonPointer schemaPointer = tree.getPointer();
+        int size = tree.getNode().get(keyword).size();
+        BranchOrder order = branchOrder(schemaPointer, size);
+        ListProcessingReport[] subReports = new ListProcessingReport[size];
+        int matched = 0;
+
+        for (int i = 0; i < size && matched < maxMatches; i++) {
+            int index = order == null ? i : order.get(i);
+            ListProcessingReport subReport = new ListProcessingReport(report.getLogLevel(), LogLevel.FATAL);
+            JsonPointer ptr = schemaPointer.append(JsonPointer.of(keyword, index));
+
+            processor.process(subReport, data.withSchema(tree.setPointer(ptr)));
+            subReports[index] = subReport;
+
+            if (subReport.isSuccess()) {
+                matched++;
+                if (order != null) {
+                    order.recordMatch(index);
+                }
+            }
+        }
+
+        if (!isValid(matched)) {
+            ObjectNode fullReport = FACTORY.objectNode();
+            for (int index = 0; index < size; index++) {
+                if (subReports[index] != null) {
+                    fullReport.set(schemaPointer.append(JsonPointer.of(keyword, index)).toString(),
+                        subReports[index].asJson());
+                }
+            }
+            report.error(newFailure(data, bundle, matched, size).put("reports", fullReport));
+        }
+    }
+
+    /**
+     * @param matched the number of matching branches, at most the maximum number of evaluated matches
+     * @return whether the instance is valid
+     */
+    abstract boolean isValid(int matched);
+
+    /**
+     * @return the message reported when the instance is invalid, without the reports of the branches
+     */
+    abstract ProcessingMessage newFailure(FullData data, MessageBundle bundle, int matched, int size);
+
+    private BranchOrder branchOrder(JsonPointer schemaPointer, int size) {
+        if (orders == null || size < 2) {
+            return null;
+        }
+        BranchOrder order = orders.get(schemaPointer);
+        return order != null ? order : orders.computeIfAbsent(schemaPointer, k -> new BranchOrder(size));
+    }
+
+    @Override
+    public final String toString() {
+        return keyword;
+    }
+
+    /**
+     * The evaluation order of the branches of a schema, most frequently matched first.
+     */
+    private static final class BranchOrder {
+
+        private final AtomicLongArray matches;
+
+        private final AtomicLong total = new AtomicLong();
+
+        private volatile int[] order;
+
+        private BranchOrder(int size) {
+            this.matches = new AtomicLongArray(size);
+            this.order = new int[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+        }
+
+        private int get(int i) {
+            return order[i];
+        }
+
+        private void recordMatch(int index) {
+            matches.incrementAndGet(index);
+            if (total.incrementAndGet() % REORDER_INTERVAL == 0) {
+                Integer[] sorted = new Integer[matches.length()];
+                long[] snapshot = new long[sorted.length];
+                for (int i = 0; i < sorted.length; i++) {
+                    sorted[i] = i;
+                    snapshot[i] = matches.get(i);
+                }
+                // Stable, so that branches that never matched keep their declaration order
+                Arrays.sort(sorted, Comparator.comparingLong((Integer i) -> snapshot[i]).reversed());
+                order = Arrays.stream(sorted).mapToInt(Integer::intValue).toArray();
+            }
+        }
+    }
+}
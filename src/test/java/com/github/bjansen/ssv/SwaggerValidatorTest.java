@@ -2,31 +2,50 @@ package com.github.bjansen.ssv;
 
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.DecimalNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.github.fge.jsonschema.core.exceptions.ProcessingException;
 import com.github.fge.jsonschema.core.report.LogLevel;
 import com.github.fge.jsonschema.core.report.ProcessingMessage;
 import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
 import com.google.common.io.CharStreams;
 import io.swagger.util.Json;
+import io.swagger.util.Yaml;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.junit.platform.commons.util.ReflectionUtils.readFieldValue;
 
 class SwaggerValidatorTest {
 
@@ -95,6 +114,45 @@ class SwaggerValidatorTest {
             assertThrows(JsonParseException.class, exec);
         }
 
+        @Test
+        void should_validate_byte_payloads() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = buildValidator("/oneOf/spec.yaml");
+            byte[] valid = "{\"id\": 4}".getBytes(StandardCharsets.UTF_8);
+            byte[] invalid = "{\"id\": 1, \"name\": \"Bob\"}".getBytes(StandardCharsets.UTF_8);
+
+            // Then
+            assertTrue(validator.validate(valid, "/definitions/User").isSuccess());
+            assertFalse(validator.validate(invalid, "/definitions/User").isSuccess());
+            assertTrue(validator.validate(new ByteArrayInputStream(valid), "/definitions/User").isSuccess());
+            assertFalse(validator.validate(new ByteArrayInputStream(invalid), "/definitions/User").isSuccess());
+        }
+
+        @Test
+        void should_validate_remaining_bytes_of_buffers() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = buildValidator("/oneOf/spec.yaml");
+            byte[] bytes = "garbage{\"id\": 4}".getBytes(StandardCharsets.UTF_8);
+            ByteBuffer heapBuffer = ByteBuffer.wrap(bytes, 7, bytes.length - 7).slice();
+            ByteBuffer directBuffer = ByteBuffer.allocateDirect(bytes.length);
+            directBuffer.put(bytes).position(7);
+
+            // Then
+            assertTrue(validator.validate(heapBuffer, "/definitions/User").isSuccess());
+            assertTrue(validator.validate(directBuffer, "/definitions/User").isSuccess());
+            assertEquals(7, directBuffer.position());
+        }
+
+        @Test
+        void should_throw_when_byte_payload_is_empty() throws IOException {
+            SwaggerValidator validator = buildValidator("/oneOf/spec.yaml");
+
+            assertThrows(IOException.class, () -> validator.validate(new byte[0], "/definitions/User"));
+            assertThrows(IOException.class, () -> validator.validate(ByteBuffer.allocate(0), "/definitions/User"));
+            assertThrows(IOException.class,
+                () -> validator.validate(new ByteArrayInputStream(new byte[0]), "/definitions/User"));
+        }
+
         @Test
         void should_report_unknown_definition_without_crashing() throws IOException {
             // Given
@@ -283,6 +341,27 @@ class SwaggerValidatorTest {
             );
         }
 
+        @Test
+        void should_describe_format_warnings() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = buildValidator("/swagger/formats.json");
+            ObjectNode node = JsonNodeFactory.instance.objectNode();
+            node.set("double", new DecimalNode(new BigDecimal("3.1415926535897932384626433832795028841971")));
+
+            // When
+            ProcessingReport report = validator.validate(node, "/definitions/User");
+
+            // Then
+            JsonNode message = ImmutableList.copyOf(report).get(0).asJson();
+            assertEquals("warn.format.double.overflow", message.path("key").textValue());
+            assertEquals("double", message.path("attribute").textValue());
+            assertEquals(new BigDecimal("3.1415926535897932384626433832795028841971"),
+                message.path("value").decimalValue());
+            assertEquals("3.141592653589793", message.path("converted").textValue());
+            assertEquals("value for double leads to overflow (original: 3.1415926535897932384626433832795028841971, "
+                + "converted: 3.141592653589793)", message.path("message").textValue());
+        }
+
         @Test
         void should_support_double_format() throws IOException, ProcessingException {
             // Given
@@ -429,14 +508,139 @@ class SwaggerValidatorTest {
             InputStream spec = getClass().getResourceAsStream("/transformations/spec-before.json");
             SwaggerValidator validator = SwaggerValidator.forJsonSchema(new InputStreamReader(spec));
 
-            JsonNode schemaObject = (JsonNode) readFieldValue(SwaggerValidator.class, "schemaObject", validator)
-                .orElse(null);
+            JsonNode schemaObject = validator.transformedSpec();
+            assertNotNull(schemaObject);
+
+            assertEquals(Json.mapper().readTree(getClass().getResourceAsStream("/transformations/spec-after.json")),
+                schemaObject);
+        }
+
+        @Test
+        void should_apply_chained_renamings() throws IOException {
+            // Given
+            JsonNode spec = Json.mapper().readTree("{\"definitions\": {\"User\": {"
+                + "\"x-one-of\": [{\"required\": [\"id\"]}], \"x-not\": {\"required\": [\"name\"]}}}}");
+            Map<String, String> transformations = new LinkedHashMap<>();
+            transformations.put("x-one-of", "x-oneof");
+            transformations.put("x-oneof", "x-oneOf");
+
+            // When
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(spec, transformations);
+
+            // Then
+            JsonNode schemaObject = validator.transformedSpec();
             assertNotNull(schemaObject);
+            assertEquals(Json.mapper().readTree("{\"definitions\": {\"User\": {"
+                    + "\"oneOf\": [{\"required\": [\"id\"]}], \"not\": {\"required\": [\"name\"]}}}}"),
+                schemaObject);
+        }
+
+        @Test
+        void should_keep_the_last_renaming_when_properties_collide() throws IOException {
+            // Given
+            JsonNode spec = Json.mapper().readTree("{\"definitions\": {\"User\": {"
+                + "\"x-one-of\": [{\"required\": [\"id\"]}], \"x-oneOf\": [{\"required\": [\"name\"]}]}}}");
+            Map<String, String> transformations = Collections.singletonMap("x-one-of", "oneOf");
+
+            // When
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(spec, transformations);
+
+            // Then
+            assertEquals(Json.mapper().readTree("{\"definitions\": {\"User\": {"
+                    + "\"oneOf\": [{\"required\": [\"name\"]}]}}}"),
+                validator.transformedSpec());
+        }
+
+        @Test
+        void should_apply_chained_renamings_one_after_the_other() throws IOException {
+            // Given
+            JsonNode spec = Json.mapper().readTree("{\"definitions\": {\"User\": {"
+                + "\"p\": {\"type\": \"string\"}, \"q\": {\"type\": \"integer\"}}}}");
+            Map<String, String> transformations = new LinkedHashMap<>();
+            transformations.put("p", "q");
+            transformations.put("q", "r");
+
+            // When
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(spec, transformations);
+
+            // Then
+            assertEquals(Json.mapper().readTree("{\"definitions\": {\"User\": {"
+                    + "\"r\": {\"type\": \"string\"}}}}"),
+                validator.transformedSpec());
+        }
+
+        @Test
+        void should_not_modify_the_given_spec() throws IOException {
+            // Given
+            JsonNode spec = Json.mapper().readTree(getClass().getResourceAsStream("/transformations/spec-before.json"));
+            JsonNode original = spec.deepCopy();
+
+            // When
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(spec, Collections.emptyMap());
 
+            // Then
+            assertEquals(original, spec);
+            JsonNode schemaObject = validator.transformedSpec();
             assertEquals(Json.mapper().readTree(getClass().getResourceAsStream("/transformations/spec-after.json")),
                 schemaObject);
         }
 
+        @Test
+        void should_share_definitions_that_are_not_transformed() throws IOException {
+            // Given
+            JsonNode spec = Yaml.mapper().readTree(getClass().getResourceAsStream("/allOf/spec.yaml"));
+
+            // When
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(spec, Collections.emptyMap());
+
+            // Then
+            JsonNode schemaObject = validator.transformedSpec();
+            assertNotNull(schemaObject);
+            assertNotSame(spec, schemaObject);
+            assertSame(spec.get("paths"), schemaObject.get("paths"));
+            assertSame(spec.at("/definitions/Pet"), schemaObject.at("/definitions/Pet"));
+            assertNotSame(spec.at("/definitions/Dog"), schemaObject.at("/definitions/Dog"));
+            assertSame(spec.at("/definitions/Dog/x-allOf/0"), schemaObject.at("/definitions/Dog/allOf/0"));
+        }
+
+        @Test
+        void should_transform_definitions_in_parallel() throws IOException, ProcessingException {
+            // Given
+            ObjectNode spec = JsonNodeFactory.instance.objectNode();
+            ObjectNode definitions = spec.putObject("definitions");
+            for (int i = 0; i < 500; i++) {
+                ObjectNode definition = definitions.putObject("Model" + i);
+                definition.put("type", "object");
+                if (i % 3 == 0) {
+                    definition.putArray("x-anyOf").addObject().putArray("required").add("id");
+                }
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+                .setExecutor(executor)
+                .freeze();
+
+            try {
+                // When
+                SwaggerValidator sequential = SwaggerValidator.forJsonNode(spec, Collections.emptyMap());
+                SwaggerValidator parallel = SwaggerValidator.forJsonNode(spec, Collections.emptyMap(), configuration);
+                Map<String, Duration> compilationTimes = parallel.precompile();
+
+                // Then
+                JsonNode expected = sequential.transformedSpec();
+                JsonNode actual = parallel.transformedSpec();
+                assertNotNull(actual);
+                assertEquals(expected, actual);
+                assertEquals(ImmutableList.copyOf(expected.get("definitions").fieldNames()),
+                    ImmutableList.copyOf(actual.get("definitions").fieldNames()));
+                assertSame(spec.at("/definitions/Model1"), actual.at("/definitions/Model1"));
+                assertEquals(500, compilationTimes.size());
+                assertFalse(parallel.validate("{}", "/definitions/Model3").isSuccess());
+            } finally {
+                executor.shutdown();
+            }
+        }
+
         @Test
         void should_transform_nested_properties() throws IOException, ProcessingException {
             // Given
@@ -453,9 +657,1304 @@ class SwaggerValidatorTest {
         }
     }
 
-    private SwaggerValidator buildValidator(String pathToSpec) throws IOException {
-        InputStream spec = getClass().getResourceAsStream(pathToSpec);
-        return SwaggerValidator.forYamlSchema(new InputStreamReader(spec));
+    @Nested
+    class SchemaCache {
+        @Test
+        void should_not_hash_the_spec_when_looking_up_schemas() throws IOException, ProcessingException {
+            // Given
+            CountingObjectNode spec = new CountingObjectNode();
+            spec.setAll((ObjectNode) Yaml.mapper().readTree(getClass().getResourceAsStream("/deepCheck/spec.yaml")));
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(spec, Collections.emptyMap());
+            JsonNode sample = buildSample("/deepCheck/valid.json");
+
+            // When
+            for (int i = 0; i < 10; i++) {
+                assertTrue(validator.validate(sample, "/definitions/User").isSuccess());
+            }
+
+            // Then
+            assertEquals(0, spec.comparisons);
+        }
+
+        @Test
+        void should_evict_least_recently_used_schemas() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+                .setMaxCachedSchemas(1)
+                .freeze();
+            InputStream spec = getClass().getResourceAsStream("/deepCheck/spec.yaml");
+            SwaggerValidator validator = SwaggerValidator.forYamlSchema(new InputStreamReader(spec), configuration);
+            JsonNode sample = buildSample("/deepCheck/valid.json");
+
+            // When
+            validator.validate(sample, "/definitions/User");
+            validator.validate(sample, "/definitions/User");
+            validator.validate(sample.get("address"), "/definitions/Address");
+            validator.validate(sample, "/definitions/User");
+
+            // Then
+            CacheStats stats = validator.getCacheStats();
+            assertEquals(1, stats.hitCount());
+            assertEquals(3, stats.missCount());
+            assertEquals(2, stats.evictionCount());
+        }
+    }
+
+    private static class CountingObjectNode extends ObjectNode {
+
+        private int comparisons;
+
+        CountingObjectNode() {
+            super(JsonNodeFactory.instance);
+        }
+
+        @Override
+        public int hashCode() {
+            comparisons++;
+            return super.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            comparisons++;
+            return super.equals(o);
+        }
+    }
+
+    @Nested
+    class Precompilation {
+        @Test
+        void should_precompile_all_definitions() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = buildValidator("/deepCheck/spec.yaml");
+
+            // When
+            Map<String, Duration> durations = validator.precompile();
+
+            // Then
+            assertEquals(Arrays.asList("/definitions/User", "/definitions/Address"),
+                new ArrayList<>(durations.keySet()));
+            assertEquals(2, validator.getCacheStats().missCount());
+
+            validator.validate(buildSample("/deepCheck/valid.json"), "/definitions/User");
+            assertEquals(2, validator.getCacheStats().missCount());
+            assertEquals(1, validator.getCacheStats().hitCount());
+        }
+
+        @Test
+        void should_precompile_definitions_in_parallel() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = buildValidator("/references/spec-issue14.json");
+            ExecutorService executor = Executors.newFixedThreadPool(2);
+
+            // When
+            Map<String, Duration> durations;
+            try {
+                durations = validator.precompile(executor);
+            } finally {
+                executor.shutdown();
+            }
+
+            // Then
+            assertEquals(Arrays.asList("/definitions/Response", "/definitions/AsyncResult"),
+                new ArrayList<>(durations.keySet()));
+            assertEquals(2, validator.getCacheStats().missCount());
+        }
+
+        @Test
+        void should_build_top_level_validators_of_each_allowed_type() throws IOException, ProcessingException {
+            // Given
+            KeywordProfiler profiler = new KeywordProfiler();
+            SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+                .setKeywordProfiler(profiler)
+                .freeze();
+            JsonNode spec = Json.mapper().readTree("{\"definitions\": {\"User\": {\"type\": \"object\","
+                + " \"required\": [\"id\"], \"properties\": {\"id\": {\"type\": \"integer\"}}}}}");
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(spec, Collections.emptyMap(), configuration);
+
+            // When
+            validator.precompile();
+
+            // Then
+            Map<String, Long> invocations = profiler.getEntries().stream()
+                .collect(Collectors.toMap(entry -> entry.getSchemaPointer() + ":" + entry.getKeyword(),
+                    KeywordProfiler.Entry::getInvocations));
+            assertEquals(Long.valueOf(1), invocations.get("/definitions/User:type"));
+            assertEquals(Long.valueOf(1), invocations.get("/definitions/User:required"));
+            assertFalse(invocations.containsKey("/definitions/User/properties/id:type"));
+        }
+
+        @Test
+        void should_report_invalid_definitions() throws IOException {
+            // Given
+            JsonNode spec = Json.mapper().readTree("{\"definitions\": {\"Broken\": {\"type\": 42}}}");
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(spec, Collections.emptyMap());
+
+            // When
+            final Executable executable = validator::precompile;
+
+            // Then
+            assertThrows(ProcessingException.class, executable);
+        }
+    }
+
+    @Nested
+    class Concurrency {
+        @Test
+        void should_compile_each_definition_once_when_used_by_many_threads() throws Exception {
+            // Given
+            SwaggerValidator validator = buildValidator("/deepCheck/spec.yaml");
+            JsonNode sample = buildSample("/deepCheck/valid.json");
+            List<String> pointers = Arrays.asList("/definitions/User", "/definitions/Address");
+
+            int threads = 64;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            Set<Object> schemas = Collections.newSetFromMap(new ConcurrentHashMap<>());
+            List<Future<Boolean>> results = new ArrayList<>();
+
+            // When
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    boolean success = true;
+                    for (int j = 0; j < 50; j++) {
+                        for (String pointer : pointers) {
+                            validator.isValid(sample, pointer);
+                            schemas.add(validator.cachedSchema(pointer));
+                        }
+                        success &= validator.validate(sample, "/definitions/User").isSuccess();
+                    }
+                    return success;
+                }));
+            }
+            start.countDown();
+
+            try {
+                for (Future<Boolean> result : results) {
+                    assertTrue(result.get());
+                }
+            } finally {
+                executor.shutdown();
+            }
+
+            // Then
+            assertEquals(pointers.size(), schemas.size());
+            assertEquals(pointers.size(), validator.getCacheStats().loadCount());
+            for (String pointer : pointers) {
+                assertTrue(schemas.contains(validator.cachedSchema(pointer)));
+            }
+        }
+    }
+
+    @Nested
+    class FastValidation {
+        private final String[][] cases = {
+            {"/deepCheck/spec.yaml", "/definitions/User", "/deepCheck/valid.json"},
+            {"/deepCheck/spec.yaml", "/definitions/User", "/deepCheck/invalid.json"},
+            {"/deepCheck/spec.yaml", "/definitions/Address", "{\"line1\": \"a\", \"line2\": 2}"},
+            {"/allOf/spec.yaml", "/definitions/Dog", "/allOf/valid.json"},
+            {"/allOf/spec.yaml", "/definitions/Dog", "/allOf/invalid.json"},
+            {"/allOf/spec.yaml", "/definitions/Dog", "{\"pet_type\": \"dog\", \"breed\": \"Poodle\"}"},
+            {"/oneOf/spec.yaml", "/definitions/User", "/oneOf/valid.json"},
+            {"/oneOf/spec.yaml", "/definitions/User", "/oneOf/valid2.json"},
+            {"/oneOf/spec.yaml", "/definitions/User", "/oneOf/invalid.json"},
+            {"/oneOf/spec.yaml", "/definitions/User", "/oneOf/invalid2.json"},
+            {"/oneOf/spec.yaml", "/definitions/User", "{}"},
+            {"/references/spec-issue14.json", "/definitions/Response", "/references/sample-issue14.json"},
+            {"/issue13/spec-issue13.json", "/definitions/ResponseBean", "{\"hello\": \"world\"}"},
+            {"/issue13/spec-issue13.json", "/definitions/ResponseBean", "{\"hello\": \"world\", \"foo\": 1}"},
+            {"/nested/spec-nested.json", "/definitions/MyModel", "{\"someProperty\": [{\"id\": 1}, {\"name\": 2}]}"},
+            {"/nested/spec-nested.json", "/definitions/MyModel", "{\"someProperty\": [{\"id\": 1, \"name\": 2}]}"},
+            {"/swagger/keywords.json", "/definitions/User", "{\"name\": \"Puma\", \"id\": 1}"},
+            {"/swagger/keywords.json", "/definitions/User", "{\"name\": \"Puma\", \"id\": 1e400}"},
+            {"/swagger/formats.json", "/definitions/User", "{\"int32\": 1, \"float\": 1.5}"},
+            {"/swagger/formats.json", "/definitions/User", "{\"int32\": 2147483648}"},
+        };
+
+        @Test
+        void should_report_like_the_fge_engine() throws IOException, ProcessingException {
+            for (String[] testCase : cases) {
+                // Given
+                SwaggerValidator fge = buildValidator(testCase[0]);
+                SwaggerValidator fast = buildValidator(testCase[0], fastValidation());
+                JsonNode sample = testCase[2].startsWith("/")
+                    ? buildSample(testCase[2])
+                    : Json.mapper().readTree(testCase[2]);
+
+                // When
+                ProcessingReport expected = fge.validate(sample, testCase[1]);
+                ProcessingReport actual = fast.validate(sample, testCase[1]);
+
+                // Then
+                String description = String.join(" ", testCase);
+                assertEquals(expected.isSuccess(), actual.isSuccess(), description);
+                assertEquals(expected.toString(), actual.toString(), description);
+            }
+        }
+
+        @Test
+        void should_compile_supported_definitions() throws IOException, ProcessingException {
+            for (String[] testCase : cases) {
+                // Given
+                SwaggerValidator validator = buildValidator(testCase[0], fastValidation());
+
+                // When
+                validator.forDefinition(testCase[1]);
+                CompiledDefinition definition = validator.cachedSchema(testCase[1]);
+
+                // Then (date-time, float and double formats are not supported)
+                boolean supported = !testCase[0].equals("/references/spec-issue14.json")
+                    && !testCase[0].equals("/swagger/formats.json");
+                assertEquals(supported, definition.isFast(), String.join(" ", testCase));
+            }
+        }
+
+        @Test
+        void should_fall_back_to_the_fge_engine_for_unsupported_keywords() throws IOException, ProcessingException {
+            // Given
+            JsonNode spec = Json.mapper().readTree("{\"definitions\": {\"Even\": {\"type\": \"integer\", \"multipleOf\": 2}}}");
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(spec, Collections.emptyMap(), fastValidation());
+
+            // When
+            ProcessingReport valid = validator.validate(Json.mapper().readTree("4"), "/definitions/Even");
+            ProcessingReport invalid = validator.validate(Json.mapper().readTree("3"), "/definitions/Even");
+
+            // Then
+            assertFalse(validator.cachedSchema("/definitions/Even").isFast());
+            assertTrue(valid.isSuccess());
+            assertFalse(invalid.isSuccess());
+        }
+
+        private SwaggerValidatorConfiguration fastValidation() {
+            return SwaggerValidatorConfiguration.newBuilder()
+                .setFastValidation(true)
+                .freeze();
+        }
+    }
+
+    @Nested
+    class FailFast {
+        @Test
+        void should_tell_whether_payloads_are_valid() throws IOException, ProcessingException {
+            for (boolean fast : new boolean[]{false, true}) {
+                // Given
+                SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+                    .setFastValidation(fast)
+                    .freeze();
+                SwaggerValidator deepCheck = buildValidator("/deepCheck/spec.yaml", configuration);
+                SwaggerValidator oneOf = buildValidator("/oneOf/spec.yaml", configuration);
+
+                // When / Then
+                assertTrue(deepCheck.isValid(buildSample("/deepCheck/valid.json"), "/definitions/User"));
+                assertFalse(deepCheck.isValid(buildSample("/deepCheck/invalid.json"), "/definitions/User"));
+                assertTrue(oneOf.isValid(buildSample("/oneOf/valid.json"), "/definitions/User"));
+                assertFalse(oneOf.isValid(buildSample("/oneOf/invalid.json"), "/definitions/User"));
+                // Warnings don't make a payload invalid
+                assertTrue(oneOf.isValid(buildSample("/oneOf/invalid2.json"), "/definitions/User"));
+            }
+        }
+
+        @Test
+        void should_reject_large_payloads_with_an_early_error() throws IOException, ProcessingException {
+            // Given
+            JsonNode spec = Json.mapper().readTree(
+                "{\"definitions\": {\"Ids\": {\"type\": \"array\", \"items\": {\"type\": \"integer\"}}}}");
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(spec, Collections.emptyMap());
+            ArrayNode payload = JsonNodeFactory.instance.arrayNode().add("zero");
+            for (int i = 1; i < 100_000; i++) {
+                payload.add(i);
+            }
+
+            // When
+            boolean valid = validator.isValid(payload, "/definitions/Ids");
+
+            // Then
+            assertFalse(valid);
+            assertFalse(validator.validate(payload, "/definitions/Ids").isSuccess());
+        }
+
+        @Test
+        void should_throw_when_definition_is_invalid() throws IOException {
+            // Given
+            JsonNode spec = Json.mapper().readTree("{\"definitions\": {\"Broken\": {\"type\": 42}}}");
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(spec, Collections.emptyMap());
+
+            // When
+            final Executable executable = () -> validator.isValid(NullNode.getInstance(), "/definitions/Broken");
+
+            // Then
+            assertThrows(ProcessingException.class, executable);
+        }
+
+        @Test
+        void should_throw_when_definition_is_unknown() throws IOException {
+            // Given
+            SwaggerValidator validator = buildValidator("/oneOf/spec.yaml");
+
+            // When
+            final Executable executable = () -> validator.isValid(NullNode.getInstance(), "/definitions/Blablabla");
+
+            // Then
+            Exception e = assertThrows(ProcessingException.class, executable);
+            assertTrue(e.getMessage().contains("Unknown definition /definitions/Blablabla"));
+        }
+    }
+
+    @Nested
+    class BatchValidation {
+        @Test
+        void should_validate_all_payloads_in_order() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = buildValidator("/oneOf/spec.yaml");
+            List<JsonNode> payloads = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                payloads.add(buildSample(i % 2 == 0 ? "/oneOf/valid.json" : "/oneOf/invalid.json"));
+            }
+
+            // When
+            List<ValidationResult> results = validator.validateAll(payloads, "/definitions/User");
+            List<ValidationResult> parallelResults = validator.validateAll(payloads.parallelStream(), "/definitions/User");
+
+            // Then
+            assertEquals(payloads.size(), results.size());
+            assertEquals(payloads.size(), parallelResults.size());
+            for (int i = 0; i < payloads.size(); i++) {
+                ProcessingReport report = validator.validate(payloads.get(i), "/definitions/User");
+                String expected = report.isSuccess() ? null : report.iterator().next().toString();
+                assertEquals(i, results.get(i).getIndex());
+                assertEquals(i, parallelResults.get(i).getIndex());
+                assertEquals(i % 2 == 0, results.get(i).isValid());
+                assertEquals(expected, Objects.toString(results.get(i).getFirstError(), null));
+                assertEquals(expected, Objects.toString(parallelResults.get(i).getFirstError(), null));
+            }
+        }
+
+        @Test
+        void should_only_keep_the_first_error() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(
+                "{\"definitions\": {\"User\": {\"properties\": {\"id\": {\"type\": \"integer\"},"
+                    + " \"name\": {\"type\": \"string\"}}}}}"), Collections.emptyMap());
+            JsonNode payload = Json.mapper().readTree("{\"id\": \"one\", \"name\": 1}");
+
+            // When
+            List<ValidationResult> results = validator.validateAll(Collections.singletonList(payload),
+                "/definitions/User");
+
+            // Then
+            ProcessingReport report = validator.validate(payload, "/definitions/User");
+            assertEquals(2, ImmutableList.copyOf(report).size());
+            assertFalse(results.get(0).isValid());
+            assertEquals(report.iterator().next().toString(), results.get(0).getFirstError().toString());
+        }
+
+        @Test
+        void should_throw_when_definition_is_unknown() throws IOException {
+            // Given
+            SwaggerValidator validator = buildValidator("/oneOf/spec.yaml");
+
+            // When
+            final Executable executable = () -> validator.validateAll(
+                Collections.<JsonNode>singletonList(NullNode.getInstance()), "/definitions/Blablabla");
+
+            // Then
+            Exception e = assertThrows(ProcessingException.class, executable);
+            assertTrue(e.getMessage().contains("Unknown definition /definitions/Blablabla"));
+        }
+    }
+
+    @Nested
+    class DefinitionValidators {
+        @Test
+        void should_validate_like_the_swagger_validator() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = buildValidator("/oneOf/spec.yaml");
+
+            // When
+            DefinitionValidator userValidator = validator.forDefinition("/definitions/User");
+
+            // Then
+            assertEquals("/definitions/User", userValidator.getDefinitionPointer());
+            for (String sample : Arrays.asList("/oneOf/valid.json", "/oneOf/invalid.json", "/oneOf/invalid2.json")) {
+                JsonNode payload = buildSample(sample);
+                ProcessingReport expected = validator.validate(payload, "/definitions/User");
+                assertEquals(expected.toString(), userValidator.validate(payload).toString());
+                assertEquals(expected.isSuccess(), userValidator.isValid(payload));
+            }
+        }
+
+        @Test
+        void should_throw_when_definition_is_unknown() throws IOException {
+            // Given
+            SwaggerValidator validator = buildValidator("/oneOf/spec.yaml");
+
+            // When
+            final Executable executable = () -> validator.forDefinition("/definitions/Blablabla");
+
+            // Then
+            Exception e = assertThrows(ProcessingException.class, executable);
+            assertTrue(e.getMessage().contains("Unknown definition /definitions/Blablabla"));
+        }
+
+        @Test
+        void should_throw_when_definition_is_invalid() throws IOException {
+            // Given
+            JsonNode spec = Json.mapper().readTree("{\"definitions\": {\"Broken\": {\"type\": 42}}}");
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(spec, Collections.emptyMap());
+
+            // When
+            final Executable executable = () -> validator.forDefinition("/definitions/Broken");
+
+            // Then
+            assertThrows(ProcessingException.class, executable);
+        }
+    }
+
+    @Nested
+    class Metrics {
+        @Test
+        void should_record_compilations_and_validations() throws IOException, ProcessingException {
+            // Given
+            InMemoryValidationMetrics metrics = new InMemoryValidationMetrics();
+            SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+                .setValidationListener(metrics)
+                .freeze();
+            SwaggerValidator validator = buildValidator("/oneOf/spec.yaml", configuration);
+
+            // When
+            validator.validate("{\"id\": 4}", "/definitions/User");
+            validator.validate("{\"id\": 1, \"name\": \"Bob\"}".getBytes(StandardCharsets.UTF_8), "/definitions/User");
+            validator.isValid(buildSample("/oneOf/valid.json"), "/definitions/User");
+            assertThrows(ProcessingException.class, () -> validator.validate("{}", "/definitions/Blablabla"));
+
+            // Then
+            InMemoryValidationMetrics.DefinitionMetrics user = metrics.getDefinition("/definitions/User");
+            assertEquals(1, user.getCompilationTimes().getCount());
+            assertEquals(0, user.getCompilationFailures());
+            assertEquals(3, user.getValidationTimes().getCount());
+            assertEquals(1, user.getInvalidPayloads());
+            assertTrue(user.getValidationTimes().getPercentile(50) <= user.getValidationTimes().getMax());
+            assertEquals(1, metrics.getDefinition("/definitions/Blablabla").getCompilationFailures());
+            assertEquals(3, metrics.getPayloadSizes().getCount());
+            assertEquals(9 + 24 + 2, metrics.getPayloadSizes().getSum());
+        }
+
+        @Test
+        void should_record_the_parsing_of_streams() throws IOException, ProcessingException {
+            // Given
+            InMemoryValidationMetrics metrics = new InMemoryValidationMetrics();
+            SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+                .setValidationListener(metrics)
+                .freeze();
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(
+                "{\"definitions\": {\"Users\": {\"type\": \"array\", \"items\": {\"type\": \"object\"}}}}"),
+                Collections.emptyMap(), configuration);
+
+            // When
+            validator.validate(new ByteArrayInputStream("[{}, {\"id\": 1}]".getBytes(StandardCharsets.UTF_8)),
+                "/definitions/Users");
+            validator.validateItems(new ByteArrayInputStream("{}\n{\"id\": 1}\n".getBytes(StandardCharsets.UTF_8)),
+                "/definitions/Users", (index, report) -> { });
+
+            // Then
+            assertEquals(3, metrics.getPayloadSizes().getCount());
+            assertEquals(15 + 2 + 9, metrics.getPayloadSizes().getSum());
+        }
+
+        @Test
+        void should_approximate_percentiles() {
+            // Given
+            InMemoryValidationMetrics metrics = new InMemoryValidationMetrics();
+
+            // When
+            for (int i = 1; i <= 1000; i++) {
+                metrics.onParsing(i, 0);
+            }
+
+            // Then
+            InMemoryValidationMetrics.Histogram sizes = metrics.getPayloadSizes();
+            assertEquals(1000, sizes.getCount());
+            assertEquals(500.5, sizes.getMean());
+            assertEquals(1000, sizes.getMax());
+            assertEquals(511, sizes.getPercentile(50));
+            assertEquals(1000, sizes.getPercentile(99));
+            assertEquals(1, sizes.getPercentile(0));
+        }
+    }
+
+    @Nested
+    class Profiling {
+        @Test
+        void should_record_keyword_invocations() throws IOException, ProcessingException {
+            // Given
+            KeywordProfiler profiler = new KeywordProfiler();
+            SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+                .setKeywordProfiler(profiler)
+                .freeze();
+            SwaggerValidator validator = buildValidator("/oneOf/spec.yaml", configuration);
+            SwaggerValidator reference = buildValidator("/oneOf/spec.yaml");
+
+            // When
+            ProcessingReport report = validator.validate(buildSample("/oneOf/invalid.json"), "/definitions/User");
+            validator.validate(buildSample("/oneOf/valid.json"), "/definitions/User");
+
+            // Then
+            assertEquals(reference.validate(buildSample("/oneOf/invalid.json"), "/definitions/User").toString(),
+                report.toString());
+            KeywordProfiler.Entry oneOf = profiler.getEntries().stream()
+                .filter(entry -> entry.getKeyword().equals("oneOf"))
+                .findFirst()
+                .orElse(null);
+            assertNotNull(oneOf);
+            assertEquals("/definitions/User", oneOf.getSchemaPointer());
+            assertEquals(2, oneOf.getInvocations());
+            assertTrue(profiler.getKeywordTotals().stream().anyMatch(entry -> entry.getKeyword().equals("required")));
+            assertTrue(profiler.dump().contains("/definitions/User"));
+
+            profiler.reset();
+            assertTrue(profiler.getEntries().isEmpty());
+        }
+
+        @Test
+        void should_record_format_invocations() throws IOException, ProcessingException {
+            // Given
+            KeywordProfiler profiler = new KeywordProfiler();
+            SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+                .setKeywordProfiler(profiler)
+                .freeze();
+            JsonNode spec = Json.mapper().readTree(
+                "{\"definitions\": {\"Id\": {\"type\": \"integer\", \"format\": \"int32\"}}}");
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(spec, Collections.emptyMap(), configuration);
+
+            // When
+            validator.validate("42", "/definitions/Id");
+
+            // Then
+            assertTrue(profiler.getEntries().stream()
+                .anyMatch(entry -> entry.getKeyword().equals("format:int32")
+                    && entry.getSchemaPointer().equals("/definitions/Id")
+                    && entry.getInvocations() == 1));
+        }
+    }
+
+    @Nested
+    class StreamingValidation {
+        private static final String SPEC = "{\"definitions\": {"
+            + "\"User\": {\"type\": \"object\", \"required\": [\"id\"], \"properties\": {\"id\": {\"type\": \"integer\"}}},"
+            + "\"Users\": {\"type\": \"array\", \"items\": {\"$ref\": \"#/definitions/User\"}},"
+            + "\"Team\": {\"type\": \"array\", \"minItems\": 2, \"maxItems\": 3,"
+            + " \"items\": {\"$ref\": \"#/definitions/User\"}},"
+            + "\"Members\": {\"$ref\": \"#/definitions/Team\"}}}";
+
+        @Test
+        void should_validate_each_item_of_an_array() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC), Collections.emptyMap());
+            byte[] payload = "[{\"id\": 1}, {\"id\": \"two\"}, {\"id\": 3}, {}]".getBytes(StandardCharsets.UTF_8);
+            List<Long> invalidItems = new ArrayList<>();
+
+            // When
+            boolean valid = validator.validateItems(new ByteArrayInputStream(payload), "/definitions/Users",
+                (index, report) -> {
+                    if (!report.isSuccess()) {
+                        invalidItems.add(index);
+                    }
+                });
+
+            // Then
+            assertFalse(valid);
+            assertEquals(Arrays.asList(1L, 3L), invalidItems);
+        }
+
+        @Test
+        void should_validate_each_line_of_ndjson() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC), Collections.emptyMap());
+            byte[] payload = "{\"id\": 1}\n{\"id\": 2}\n{\"id\": 3}\n".getBytes(StandardCharsets.UTF_8);
+            List<ProcessingReport> reports = new ArrayList<>();
+
+            // When
+            boolean valid = validator.validateItems(new ByteArrayInputStream(payload), "/definitions/Users",
+                (index, report) -> reports.add(report));
+
+            // Then
+            assertTrue(valid);
+            assertEquals(3, reports.size());
+        }
+
+        @Test
+        void should_throw_when_array_is_not_closed() throws IOException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC), Collections.emptyMap());
+            byte[] payload = "[{\"id\": 1}, {\"id\": 2}".getBytes(StandardCharsets.UTF_8);
+
+            // When
+            final Executable executable = () -> validator.validateItems(new ByteArrayInputStream(payload),
+                "/definitions/Users", (index, report) -> { });
+
+            // Then
+            assertThrows(IOException.class, executable);
+        }
+
+        @Test
+        void should_throw_when_definition_has_no_items() throws IOException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC), Collections.emptyMap());
+
+            // When
+            final Executable executable = () -> validator.validateItems(new ByteArrayInputStream(new byte[0]),
+                "/definitions/User", (index, report) -> { });
+
+            // Then
+            Exception e = assertThrows(ProcessingException.class, executable);
+            assertTrue(e.getMessage().contains("Definition /definitions/User has no items schema"));
+        }
+
+        @Test
+        void should_check_min_items_of_an_empty_array() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC), Collections.emptyMap());
+            byte[] payload = "[]".getBytes(StandardCharsets.UTF_8);
+            Map<Long, ProcessingReport> reports = new HashMap<>();
+
+            // When
+            boolean valid = validator.validateItems(new ByteArrayInputStream(payload), "/definitions/Team",
+                reports::put);
+
+            // Then
+            assertFalse(valid);
+            assertEquals(Collections.singleton(0L), reports.keySet());
+            ProcessingMessage message = reports.get(0L).iterator().next();
+            assertEquals("minItems", message.asJson().path("keyword").textValue());
+            assertEquals("/definitions/Team", message.asJson().path("schema").path("pointer").textValue());
+            assertEquals(0, message.asJson().path("found").intValue());
+        }
+
+        @Test
+        void should_check_max_items_once_the_stream_is_read() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC), Collections.emptyMap());
+            byte[] payload = "{\"id\": 1}\n{\"id\": 2}\n{\"id\": 3}\n{\"id\": 4}\n".getBytes(StandardCharsets.UTF_8);
+            Map<Long, ProcessingReport> reports = new HashMap<>();
+
+            // When
+            boolean valid = validator.validateItems(new ByteArrayInputStream(payload), "/definitions/Team",
+                reports::put);
+
+            // Then
+            assertFalse(valid);
+            assertEquals(5, reports.size());
+            assertFalse(reports.get(4L).isSuccess());
+            assertEquals("maxItems", reports.get(4L).iterator().next().asJson().path("keyword").textValue());
+        }
+
+        @Test
+        void should_follow_references_to_the_array_definition() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC), Collections.emptyMap());
+            byte[] payload = "[{\"id\": 1}, {}]".getBytes(StandardCharsets.UTF_8);
+            List<Long> invalidItems = new ArrayList<>();
+
+            // When
+            boolean valid = validator.validateItems(new ByteArrayInputStream(payload), "/definitions/Members",
+                (index, report) -> {
+                    if (!report.isSuccess()) {
+                        invalidItems.add(index);
+                    }
+                });
+
+            // Then
+            assertFalse(valid);
+            assertEquals(Collections.singletonList(1L), invalidItems);
+        }
+
+        @Test
+        void should_report_the_same_count_message_as_validate() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC), Collections.emptyMap());
+            byte[] payload = "[{\"id\": 1}]".getBytes(StandardCharsets.UTF_8);
+            List<ProcessingReport> reports = new ArrayList<>();
+
+            // When
+            validator.validateItems(new ByteArrayInputStream(payload), "/definitions/Team",
+                (index, report) -> reports.add(report));
+
+            // Then
+            ProcessingMessage expected = validator.validate("[{\"id\": 1}]", "/definitions/Team").iterator().next();
+            assertEquals(expected.asJson(), reports.get(1).iterator().next().asJson());
+        }
+    }
+
+    @Nested
+    class DiscriminatorDispatch {
+        private static final String SPEC = "{\"definitions\": {"
+            + "\"Pet\": {\"type\": \"object\", \"required\": [\"petType\"], \"discriminator\": \"petType\","
+            + " \"properties\": {\"petType\": {\"type\": \"string\"}}},"
+            + "\"Dog\": {\"x-allOf\": [{\"$ref\": \"#/definitions/Pet\"},"
+            + " {\"properties\": {\"bark\": {\"type\": \"boolean\"}}}]},"
+            + "\"Husky\": {\"x-allOf\": [{\"$ref\": \"#/definitions/Dog\"}, {\"required\": [\"name\"]}]},"
+            + "\"Cat\": {\"x-allOf\": [{\"$ref\": \"#/definitions/Pet\"},"
+            + " {\"properties\": {\"lives\": {\"type\": \"integer\", \"maximum\": 9}}}]},"
+            + "\"Owner\": {\"type\": \"object\", \"properties\": {\"pets\": {\"type\": \"array\","
+            + " \"items\": {\"$ref\": \"#/definitions/Pet\"}}}},"
+            + "\"Kennel\": {\"type\": \"object\", \"properties\": {\"dogs\": {\"type\": \"array\","
+            + " \"items\": {\"$ref\": \"#/definitions/Dog\"}}}}}}";
+
+        private SwaggerValidator validator(boolean fastValidation) throws IOException {
+            SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+                .setDiscriminatorDispatch(true)
+                .setFastValidation(fastValidation)
+                .freeze();
+            return SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC), Collections.emptyMap(), configuration);
+        }
+
+        @Test
+        void should_validate_against_the_named_definition() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = validator(false);
+            SwaggerValidator reference = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC),
+                Collections.emptyMap());
+            String invalidDog = "{\"petType\": \"Dog\", \"bark\": \"woof\"}";
+
+            // When
+            ProcessingReport valid = validator.validate("{\"petType\": \"Cat\", \"lives\": 9}", "/definitions/Pet");
+            ProcessingReport invalid = validator.validate(invalidDog, "/definitions/Pet");
+
+            // Then
+            assertTrue(valid.isSuccess());
+            assertFalse(invalid.isSuccess());
+            assertTrue(invalid.toString().contains("failed validation of discriminator schema '/definitions/Dog'"));
+            assertTrue(reference.validate(invalidDog, "/definitions/Pet").isSuccess());
+        }
+
+        @Test
+        void should_validate_against_indirect_subtypes() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = validator(false);
+
+            // When
+            ProcessingReport asPet = validator.validate("{\"petType\": \"Husky\"}", "/definitions/Pet");
+            ProcessingReport asDog = validator.validate("{\"petType\": \"Husky\"}", "/definitions/Dog");
+            ProcessingReport asHusky = validator.validate("{\"petType\": \"Husky\", \"name\": \"Balto\"}",
+                "/definitions/Husky");
+
+            // Then
+            assertFalse(asPet.isSuccess());
+            assertTrue(asPet.toString().contains("'/definitions/Husky'"));
+            assertTrue(asDog.isSuccess());
+            assertTrue(asHusky.isSuccess());
+        }
+
+        @Test
+        void should_report_invalid_discriminator_values() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = validator(false);
+
+            // When
+            ProcessingReport unknown = validator.validate("{\"petType\": \"Fish\"}", "/definitions/Pet");
+            ProcessingReport notText = validator.validate("{\"pets\": [{\"petType\": 1}]}", "/definitions/Owner");
+            ProcessingReport missing = validator.validate("{}", "/definitions/Pet");
+
+            // Then
+            assertTrue(unknown.toString().contains("discriminator field 'petType' value 'Fish' is not the name of a "
+                + "valid definition (possible values: [Cat, Dog, Husky, Pet])"));
+            assertTrue(notText.toString().contains("discriminator field 'petType' must be a String value"));
+            assertTrue(missing.toString().contains("discriminator field 'petType' is required"));
+        }
+
+        @Test
+        void should_reject_discriminators_that_do_not_match_the_subtype() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = validator(false);
+
+            // When
+            ProcessingReport catAsDog = validator.validate("{\"petType\": \"Cat\"}", "/definitions/Dog");
+            ProcessingReport dogAsHusky = validator.validate("{\"petType\": \"Dog\", \"name\": \"Rex\"}",
+                "/definitions/Husky");
+            ProcessingReport nested = validator.validate("{\"dogs\": [{\"petType\": \"Husky\", \"name\": \"Balto\"},"
+                + " {\"petType\": \"Cat\"}]}", "/definitions/Kennel");
+
+            // Then
+            assertFalse(catAsDog.isSuccess());
+            assertTrue(catAsDog.toString().contains("discriminator field 'petType' value 'Cat' is not the name of a "
+                + "valid definition (possible values: [Dog, Husky])"));
+            assertFalse(dogAsHusky.isSuccess());
+            assertTrue(dogAsHusky.toString().contains("(possible values: [Husky])"));
+            assertFalse(nested.isSuccess());
+            assertTrue(nested.toString().contains("/dogs/1"));
+            assertFalse(nested.toString().contains("/dogs/0"));
+        }
+
+        @Test
+        void should_dispatch_with_fast_validation() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = validator(true);
+
+            // When
+            ProcessingReport valid = validator.validate("{\"pets\": [{\"petType\": \"Dog\", \"bark\": true}]}",
+                "/definitions/Owner");
+            ProcessingReport invalid = validator.validate("{\"pets\": [{\"petType\": \"Cat\", \"lives\": 10}]}",
+                "/definitions/Owner");
+
+            // Then
+            assertTrue(valid.isSuccess());
+            assertFalse(invalid.isSuccess());
+        }
+
+        @Test
+        void should_check_the_discriminator_property() throws IOException {
+            // Given
+            SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+                .setDiscriminatorDispatch(true)
+                .freeze();
+            JsonNode spec = Json.mapper().readTree("{\"definitions\": {\"Pet\": {\"type\": \"object\","
+                + " \"discriminator\": \"petType\", \"properties\": {\"petType\": {\"type\": \"string\"}}}}}");
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(spec, Collections.emptyMap(), configuration);
+
+            // When
+            final Executable executable = () -> validator.validate("{}", "/definitions/Pet");
+
+            // Then
+            Exception e = assertThrows(ProcessingException.class, executable);
+            assertTrue(e.getMessage().contains("'discriminator' field 'petType' must be marked as a required property"));
+        }
+    }
+
+    @Nested
+    class ShortCircuitCombinators {
+        private final String[][] cases = {
+            {"/oneOf/spec.yaml", "/definitions/User", "/oneOf/valid.json"},
+            {"/oneOf/spec.yaml", "/definitions/User", "/oneOf/valid2.json"},
+            {"/oneOf/spec.yaml", "/definitions/User", "/oneOf/invalid.json"},
+            {"/oneOf/spec.yaml", "/definitions/User", "/oneOf/invalid2.json"},
+            {"/allOf/spec.yaml", "/definitions/Dog", "/allOf/valid.json"},
+            {"/allOf/spec.yaml", "/definitions/Dog", "/allOf/invalid.json"},
+        };
+
+        private final SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+            .setShortCircuitCombinators(true)
+            .setAdaptiveBranchOrdering(true)
+            .freeze();
+
+        @Test
+        void should_report_like_the_fge_validators() throws IOException, ProcessingException {
+            for (String[] testCase : cases) {
+                // Given
+                SwaggerValidator reference = buildValidator(testCase[0]);
+                SwaggerValidator validator = buildValidator(testCase[0], configuration);
+
+                // When
+                String expected = reference.validate(buildSample(testCase[2]), testCase[1]).toString();
+
+                // Then
+                for (int i = 0; i < 300; i++) {
+                    assertEquals(expected, validator.validate(buildSample(testCase[2]), testCase[1]).toString(),
+                        String.join(" ", testCase));
+                }
+            }
+        }
+
+        @Test
+        void should_stop_at_the_first_matching_branch() throws IOException, ProcessingException {
+            // Given
+            KeywordProfiler profiler = new KeywordProfiler();
+            JsonNode spec = Json.mapper().readTree("{\"definitions\": {\"Id\": {\"x-anyOf\": ["
+                + "{\"type\": \"integer\"}, {\"type\": \"string\", \"minLength\": 1}]}}}");
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(spec, Collections.emptyMap(),
+                SwaggerValidatorConfiguration.newBuilder()
+                    .setShortCircuitCombinators(true)
+                    .setKeywordProfiler(profiler)
+                    .freeze());
+
+            // When
+            ProcessingReport report = validator.validate("42", "/definitions/Id");
+
+            // Then
+            assertTrue(report.isSuccess());
+            assertTrue(profiler.getEntries().stream()
+                .noneMatch(entry -> entry.getSchemaPointer().equals("/definitions/Id/anyOf/1")));
+        }
+
+        @Test
+        void should_evaluate_frequent_branches_first() throws IOException, ProcessingException {
+            // Given
+            KeywordProfiler profiler = new KeywordProfiler();
+            JsonNode spec = Json.mapper().readTree("{\"definitions\": {\"Id\": {\"x-anyOf\": ["
+                + "{\"type\": \"integer\"}, {\"type\": \"string\", \"minLength\": 1}]}}}");
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(spec, Collections.emptyMap(),
+                SwaggerValidatorConfiguration.newBuilder()
+                    .setShortCircuitCombinators(true)
+                    .setAdaptiveBranchOrdering(true)
+                    .setKeywordProfiler(profiler)
+                    .freeze());
+            for (int i = 0; i < 1000; i++) {
+                validator.validate("\"id\"", "/definitions/Id");
+            }
+            profiler.reset();
+
+            // When
+            ProcessingReport valid = validator.validate("\"id\"", "/definitions/Id");
+            ProcessingReport invalid = validator.validate("\"\"", "/definitions/Id");
+
+            // Then
+            assertTrue(valid.isSuccess());
+            assertFalse(invalid.isSuccess());
+            assertEquals(1, profiler.getEntries().stream()
+                .filter(entry -> entry.getSchemaPointer().equals("/definitions/Id/anyOf/0"))
+                .mapToLong(KeywordProfiler.Entry::getInvocations)
+                .sum());
+            assertTrue(invalid.toString().indexOf("/definitions/Id/anyOf/0")
+                < invalid.toString().indexOf("/definitions/Id/anyOf/1"));
+        }
+    }
+
+    @Nested
+    class DefinitionGraphs {
+        private static final String SPEC = "{\"paths\": {\"/users\": {\"get\": {\"responses\": {\"200\": {"
+            + "\"schema\": {\"$ref\": \"#/definitions/User\"}}}}}},"
+            + "\"definitions\": {"
+            + "\"User\": {\"properties\": {\"group\": {\"$ref\": \"#/definitions/Group\"},"
+            + " \"address\": {\"$ref\": \"#/definitions/Address/properties/street\"}}},"
+            + "\"Group\": {\"properties\": {\"members\": {\"type\": \"array\","
+            + " \"items\": {\"$ref\": \"#/definitions/User\"}}}},"
+            + "\"Address\": {\"properties\": {\"street\": {\"type\": \"string\"}}},"
+            + "\"Tree\": {\"properties\": {\"children\": {\"type\": \"array\","
+            + " \"items\": {\"$ref\": \"#/definitions/Tree\"}}}, \"example\": {\"$ref\": \"#/definitions/User\"}},"
+            + "\"Unused\": {\"type\": \"string\"}}}";
+
+        @Test
+        void should_compute_dependencies() throws IOException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC),
+                Collections.emptyMap());
+
+            // When
+            DefinitionGraph graph = validator.getDefinitionGraph();
+
+            // Then
+            assertEquals(Arrays.asList("/definitions/User", "/definitions/Group", "/definitions/Address",
+                "/definitions/Tree", "/definitions/Unused"), new ArrayList<>(graph.getDefinitions()));
+            assertEquals(Arrays.asList("/definitions/Group", "/definitions/Address"),
+                new ArrayList<>(graph.getDependencies("/definitions/User")));
+            assertEquals(Collections.singleton("/definitions/User"), graph.getDependents("/definitions/Address"));
+            assertTrue(graph.getDependencies("/definitions/Tree").contains("/definitions/Tree"));
+            assertEquals(3, graph.getTransitiveDependencies("/definitions/Group").size());
+            assertEquals(Collections.singleton("/definitions/User"), graph.getRoots());
+            assertEquals(new HashSet<>(Arrays.asList("/definitions/User", "/definitions/Group",
+                "/definitions/Address")), graph.getReachableDefinitions());
+            assertEquals(Arrays.asList("/definitions/Tree", "/definitions/Unused"),
+                new ArrayList<>(graph.getUnreachableDefinitions()));
+            assertEquals(new HashSet<>(Arrays.asList("/definitions/User", "/definitions/Group",
+                "/definitions/Tree")), graph.getRecursiveDefinitions());
+        }
+
+        @Test
+        void should_find_references_in_properties_named_like_keywords() throws IOException {
+            // Given
+            JsonNode spec = Json.mapper().readTree("{\"paths\": {\"/settings\": {\"get\": {\"responses\": {"
+                + "\"default\": {\"schema\": {\"$ref\": \"#/definitions/Setting\"}}}}}},"
+                + "\"definitions\": {"
+                + "\"Setting\": {\"properties\": {\"default\": {\"$ref\": \"#/definitions/Value\"},"
+                + " \"enum\": {\"type\": \"array\", \"items\": {\"$ref\": \"#/definitions/Value\"}}},"
+                + " \"default\": {\"$ref\": \"#/definitions/Unused\"}},"
+                + "\"Value\": {\"type\": \"string\"},"
+                + "\"Unused\": {\"type\": \"string\"}}}");
+
+            // When
+            DefinitionGraph graph = SwaggerValidator.forJsonNode(spec, Collections.emptyMap()).getDefinitionGraph();
+
+            // Then
+            assertEquals(Collections.singleton("/definitions/Value"), graph.getDependencies("/definitions/Setting"));
+            assertEquals(Collections.singleton("/definitions/Setting"), graph.getDependents("/definitions/Value"));
+            assertEquals(Collections.singleton("/definitions/Setting"), graph.getRoots());
+            assertEquals(new HashSet<>(Arrays.asList("/definitions/Setting", "/definitions/Value")),
+                graph.getReachableDefinitions());
+            assertEquals(Arrays.asList("/definitions/Value", "/definitions/Setting", "/definitions/Unused"),
+                graph.getCompilationOrder());
+        }
+
+        @Test
+        void should_order_components_after_their_dependencies() throws IOException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC),
+                Collections.emptyMap());
+
+            // When
+            List<Set<String>> components = validator.getDefinitionGraph().getComponents();
+
+            // Then
+            assertEquals(4, components.size());
+            assertEquals(Collections.singleton("/definitions/Address"), components.get(0));
+            assertEquals(new HashSet<>(Arrays.asList("/definitions/User", "/definitions/Group")), components.get(1));
+        }
+
+        @Test
+        void should_precompile_reachable_definitions() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC),
+                Collections.emptyMap(), SwaggerValidatorConfiguration.newBuilder().setFastValidation(true).freeze());
+            DefinitionGraph graph = validator.getDefinitionGraph();
+
+            // When
+            Map<String, Duration> durations = validator.precompile(graph.getReachableDefinitions(), Runnable::run);
+
+            // Then
+            assertEquals(graph.getReachableDefinitions(), durations.keySet());
+            assertEquals(3, validator.getCacheStats().loadCount());
+            assertTrue(validator.validate("{\"group\": {\"members\": [{\"address\": \"Main St\"}]}}",
+                "/definitions/User").isSuccess());
+            assertFalse(validator.validate("{\"members\": [{\"group\": {\"members\": [{\"address\": 1}]}}]}",
+                "/definitions/Group").isSuccess());
+        }
+
+        @Test
+        void should_share_compiled_references() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = buildValidator("/references/spec-issue14.json",
+                SwaggerValidatorConfiguration.newBuilder().setFastValidation(true).freeze());
+            SwaggerValidator reference = buildValidator("/references/spec-issue14.json");
+
+            // When
+            validator.precompile();
+
+            // Then
+            assertEquals(Collections.singletonList(Collections.singleton("/definitions/AsyncResult")),
+                validator.getDefinitionGraph().getComponents().subList(0, 1));
+            assertEquals(reference.validate(buildSample("/references/sample-issue14.json"), "/definitions/Response")
+                    .toString(),
+                validator.validate(buildSample("/references/sample-issue14.json"), "/definitions/Response")
+                    .toString());
+        }
+    }
+
+    @Nested
+    class Reload {
+        private static final String SPEC = "{\"definitions\": {"
+            + "\"User\": {\"properties\": {\"group\": {\"$ref\": \"#/definitions/Group\"},"
+            + " \"address\": {\"$ref\": \"#/definitions/Address\"}}},"
+            + "\"Group\": {\"properties\": {\"members\": {\"type\": \"array\","
+            + " \"items\": {\"$ref\": \"#/definitions/User\"}}}},"
+            + "\"Address\": {\"properties\": {\"street\": {\"type\": \"string\"}}},"
+            + "\"Pet\": {\"x-anyOf\": [{\"required\": [\"name\"]}, {\"required\": [\"id\"]}]},"
+            + "\"Id\": {\"$ref\": \"#/x-shared/Id\"}},"
+            + "\"x-shared\": {\"Id\": {\"type\": \"string\"}}}";
+
+        @Test
+        void should_only_recompile_changed_definitions_and_their_dependents() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC),
+                Collections.emptyMap(), SwaggerValidatorConfiguration.newBuilder().setFastValidation(true).freeze());
+            validator.precompile();
+            JsonNode pet = validator.transformedSpec().at("/definitions/Pet");
+
+            // When
+            Set<String> invalidated = validator.reload(Json.mapper().readTree(
+                SPEC.replace("\"street\": {\"type\": \"string\"}", "\"street\": {\"type\": \"integer\"}")));
+
+            // Then
+            assertEquals(new HashSet<>(Arrays.asList("/definitions/Address", "/definitions/User",
+                "/definitions/Group")), invalidated);
+            assertSame(pet, validator.transformedSpec().at("/definitions/Pet"));
+            assertTrue(validator.validate("{\"id\": 1}", "/definitions/Pet").isSuccess());
+            assertTrue(validator.validate("\"42\"", "/definitions/Id").isSuccess());
+            assertEquals(0, validator.getCacheStats().loadCount());
+            assertFalse(validator.validate("{\"address\": {\"street\": \"Main St\"}}", "/definitions/User")
+                .isSuccess());
+            assertTrue(validator.validate("{\"members\": [{\"address\": {\"street\": 1}}]}", "/definitions/Group")
+                .isSuccess());
+            assertEquals(2, validator.getCacheStats().loadCount());
+        }
+
+        @Test
+        void should_bind_kept_definitions_to_the_new_spec() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC),
+                Collections.emptyMap(), SwaggerValidatorConfiguration.newBuilder().setFastValidation(true).freeze());
+            validator.precompile();
+            JsonNode previous = validator.transformedSpec();
+            CompiledDefinition pet = validator.cachedSchema("/definitions/Pet");
+
+            // When
+            validator.reload(Json.mapper().readTree(
+                SPEC.replace("\"street\": {\"type\": \"string\"}", "\"street\": {\"type\": \"integer\"}")));
+
+            // Then
+            CompiledDefinition kept = validator.cachedSchema("/definitions/Pet");
+            assertNotNull(kept);
+            assertTrue(kept.isFast());
+            assertSame(previous, pet.getSchema().getBaseNode());
+            assertSame(validator.transformedSpec(), kept.getSchema().getBaseNode());
+            assertSame(validator.transformedSpec().at("/definitions/Pet"), kept.getSchema().getNode());
+            assertFalse(validator.validate("{}", "/definitions/Pet").isSuccess());
+            assertEquals(0, validator.getCacheStats().loadCount());
+        }
+
+        @Test
+        void should_recompile_definitions_referencing_changed_sections() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC),
+                Collections.emptyMap());
+            assertTrue(validator.validate("\"42\"", "/definitions/Id").isSuccess());
+
+            // When
+            Set<String> invalidated = validator.reload(Json.mapper().readTree(
+                SPEC.replace("\"Id\": {\"type\": \"string\"}", "\"Id\": {\"type\": \"integer\"}")));
+
+            // Then
+            assertEquals(Collections.singleton("/definitions/Id"), invalidated);
+            assertFalse(validator.validate("\"42\"", "/definitions/Id").isSuccess());
+            assertTrue(validator.validate("42", "/definitions/Id").isSuccess());
+        }
+
+        @Test
+        void should_forget_removed_definitions() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC),
+                Collections.emptyMap());
+            validator.precompile();
+            ObjectNode newSpec = (ObjectNode) Json.mapper().readTree(SPEC);
+            ((ObjectNode) newSpec.get("definitions")).remove("Pet");
+
+            // When
+            Set<String> invalidated = validator.reload(newSpec);
+
+            // Then
+            assertTrue(invalidated.isEmpty());
+            assertFalse(validator.getDefinitionGraph().getDefinitions().contains("/definitions/Pet"));
+            ProcessingException exception = assertThrows(ProcessingException.class,
+                () -> validator.validate("{}", "/definitions/Pet"));
+            assertTrue(exception.getMessage().contains("Unknown definition /definitions/Pet"));
+        }
+
+        @Test
+        void should_not_invalidate_anything_when_the_spec_did_not_change() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC),
+                Collections.emptyMap());
+            validator.precompile();
+
+            // When
+            Set<String> invalidated = validator.reload(Json.mapper().readTree(SPEC));
+
+            // Then
+            assertTrue(invalidated.isEmpty());
+            assertTrue(validator.validate("{\"address\": {\"street\": \"Main St\"}}", "/definitions/User")
+                .isSuccess());
+            assertEquals(0, validator.getCacheStats().loadCount());
+        }
+
+        @Test
+        void should_keep_the_previous_spec_in_definition_validators() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC),
+                Collections.emptyMap());
+            DefinitionValidator address = validator.forDefinition("/definitions/Address");
+
+            // When
+            validator.reload(Json.mapper().readTree(
+                SPEC.replace("\"street\": {\"type\": \"string\"}", "\"street\": {\"type\": \"integer\"}")));
+
+            // Then
+            assertTrue(address.isValid(Json.mapper().readTree("{\"street\": \"Main St\"}")));
+            assertFalse(validator.validate("{\"street\": \"Main St\"}", "/definitions/Address").isSuccess());
+        }
+
+        @Test
+        void should_recompile_definitions_referencing_changes_from_properties_named_like_keywords()
+            throws IOException, ProcessingException {
+            // Given
+            String spec = "{\"definitions\": {"
+                + "\"Setting\": {\"properties\": {\"default\": {\"$ref\": \"#/definitions/Value\"}}},"
+                + "\"Value\": {\"type\": \"string\"}}}";
+            String newSpec = spec.replace("\"type\": \"string\"", "\"type\": \"integer\"");
+            SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+                .setFastValidation(true)
+                .freeze();
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(spec),
+                Collections.emptyMap(), configuration);
+            validator.precompile();
+
+            // When
+            Set<String> invalidated = validator.reload(Json.mapper().readTree(newSpec));
+
+            // Then
+            assertEquals(new HashSet<>(Arrays.asList("/definitions/Setting", "/definitions/Value")), invalidated);
+            SwaggerValidator rebuilt = SwaggerValidator.forJsonNode(Json.mapper().readTree(newSpec),
+                Collections.emptyMap(), configuration);
+            assertFalse(rebuilt.isValid(Json.mapper().readTree("{\"default\": \"abc\"}"), "/definitions/Setting"));
+            assertFalse(validator.isValid(Json.mapper().readTree("{\"default\": \"abc\"}"), "/definitions/Setting"));
+            assertFalse(validator.validate("{\"default\": \"abc\"}", "/definitions/Setting").isSuccess());
+        }
+    }
+
+    @Nested
+    class JavaRegex {
+        private static final String SPEC = "{\"definitions\": {"
+            + "\"Code\": {\"type\": \"string\", \"pattern\": \"^[A-Z]{3}-\\\\d{4}$\"},"
+            + "\"Headers\": {\"type\": \"object\", \"additionalProperties\": false,"
+            + " \"properties\": {\"id\": {\"type\": \"string\"}},"
+            + " \"x-patternProperties\": {\"^x-\": {\"type\": \"string\", \"pattern\": \"\\\\S\"}}}}}";
+
+        @Test
+        void should_report_the_same_errors_as_the_javascript_engine() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+                .setJavaRegex(true)
+                .freeze();
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC),
+                Collections.emptyMap(), configuration);
+            SwaggerValidator reference = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC),
+                Collections.emptyMap());
+
+            // When
+            String[][] samples = {
+                {"\"ABC-1234\"", "/definitions/Code"},
+                {"\"abc-1234\"", "/definitions/Code"},
+                {"\"ABC-1234\\n\"", "/definitions/Code"},
+                {"{\"id\": \"1\", \"x-trace\": \"abc\"}", "/definitions/Headers"},
+                {"{\"id\": \"1\", \"x-trace\": \" \"}", "/definitions/Headers"},
+                {"{\"id\": \"1\", \"trace\": \"abc\", \"other\": 1}", "/definitions/Headers"},
+            };
+
+            // Then
+            for (String[] sample : samples) {
+                assertEquals(reference.validate(sample[0], sample[1]).toString(),
+                    validator.validate(sample[0], sample[1]).toString(), sample[0]);
+            }
+            assertFalse(validator.validate("{\"trace\": \"abc\"}", "/definitions/Headers").isSuccess());
+            assertFalse(validator.validate("\"abc-1234\"", "/definitions/Code").isSuccess());
+        }
+
+        @Test
+        void should_use_java_regex_with_fast_validation() throws IOException, ProcessingException {
+            // Given
+            SwaggerValidatorConfiguration configuration = SwaggerValidatorConfiguration.newBuilder()
+                .setJavaRegex(true)
+                .setFastValidation(true)
+                .freeze();
+            SwaggerValidator validator = SwaggerValidator.forJsonNode(Json.mapper().readTree(SPEC),
+                Collections.emptyMap(), configuration);
+
+            // When
+            ProcessingReport valid = validator.validate("\"ABC-1234\"", "/definitions/Code");
+            ProcessingReport invalid = validator.validate("\"ABC-12345\"", "/definitions/Code");
+
+            // Then
+            assertTrue(valid.isSuccess());
+            assertFalse(invalid.isSuccess());
+        }
+    }
+
+    private SwaggerValidator buildValidator(String pathToSpec) throws IOException {
+        InputStream spec = getClass().getResourceAsStream(pathToSpec);
+        return SwaggerValidator.forYamlSchema(new InputStreamReader(spec));
+    }
+
+    private SwaggerValidator buildValidator(String pathToSpec, SwaggerValidatorConfiguration configuration)
+        throws IOException {
+        InputStream spec = getClass().getResourceAsStream(pathToSpec);
+        return SwaggerValidator.forYamlSchema(new InputStreamReader(spec), configuration);
     }
 
     private JsonNode buildSample(String s) throws IOException {
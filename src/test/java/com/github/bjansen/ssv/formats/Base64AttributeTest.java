@@ -0,0 +1,74 @@
+package com.github.bjansen.ssv.formats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Base64AttributeTest {
+
+    private static final Pattern BASE64_PATTERN = Pattern.compile("^(?:[A-Za-z0-9+/]{4})*(?:[A-Za-z0-9+/]{2}==|[A-Za-z0-9+/]{3}=)?$");
+
+    private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"
+        + "===-_ \n.\u00e9\u0000\ud83d\ude00";
+
+    @Test
+    void should_accept_encoded_values() {
+        Random random = new Random(42);
+
+        for (int length = 0; length < 100; length++) {
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+
+            String encoded = Base64.getEncoder().encodeToString(bytes);
+            assertTrue(Base64Attribute.isBase64(encoded), encoded);
+        }
+    }
+
+    @Test
+    void should_reject_malformed_values() {
+        for (String value : new String[]{"a", "ab", "abc", "a===", "====", "ab=c", "ab==abcd", "abc=\n", "abcd\n",
+            "ab-_", "ab c", "abc\u00e9"}) {
+            assertFalse(Base64Attribute.isBase64(value), value);
+        }
+    }
+
+    @Test
+    void should_behave_like_the_regex() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            StringBuilder value = new StringBuilder();
+            int length = random.nextInt(13);
+
+            for (int j = 0; j < length; j++) {
+                // Mostly valid characters, so that some values are accepted
+                value.append(random.nextInt(10) == 0
+                    ? CHARACTERS.charAt(64 + random.nextInt(CHARACTERS.length() - 64))
+                    : CHARACTERS.charAt(random.nextInt(64)));
+            }
+            if (random.nextBoolean() && length >= 2) {
+                value.setCharAt(length - 1, '=');
+                if (random.nextBoolean()) {
+                    value.setCharAt(length - 2, '=');
+                }
+            }
+
+            String s = value.toString();
+            assertEquals(BASE64_PATTERN.matcher(s).matches(), Base64Attribute.isBase64(s), s);
+        }
+    }
+
+    @Test
+    void should_validate_large_values() {
+        byte[] bytes = new byte[15 * 1024 * 1024];
+        new Random(42).nextBytes(bytes);
+        String encoded = Base64.getEncoder().encodeToString(bytes);
+
+        assertTrue(Base64Attribute.isBase64(encoded));
+        assertFalse(Base64Attribute.isBase64(encoded.substring(1)));
+    }
+}
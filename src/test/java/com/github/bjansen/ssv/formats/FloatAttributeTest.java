@@ -0,0 +1,56 @@
+package com.github.bjansen.ssv.formats;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FloatAttributeTest {
+
+    @Test
+    void should_accept_values_written_the_same_way_as_floats() {
+        for (double value : new double[]{0.0, 1.0, -1.0, 0.5, 0.1, 42.0, 3.14, 1024.25, 9999999.0, 0.001}) {
+            assertTrue(FloatAttribute.fitsFloat(value), String.valueOf(value));
+        }
+    }
+
+    @Test
+    void should_reject_values_written_differently_as_floats() {
+        for (double value : new double[]{-0.0, 0.1 + 0.2, Math.PI, 1e7, 16777217.0, 1e-5, 1e300, Double.MIN_VALUE}) {
+            assertFalse(FloatAttribute.fitsFloat(value), String.valueOf(value));
+        }
+    }
+
+    @Test
+    void should_behave_like_string_conversions() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            double value;
+            switch (i % 4) {
+                case 0:
+                    // Integers
+                    value = (double) (random.nextInt() >> random.nextInt(32));
+                    break;
+                case 1:
+                    // Decimals with a few digits
+                    value = (random.nextInt(2_000_000) - 1_000_000) / Math.pow(10, random.nextInt(9));
+                    break;
+                case 2:
+                    // Floats
+                    value = Float.intBitsToFloat(random.nextInt());
+                    break;
+                default:
+                    value = Double.longBitsToDouble(random.nextLong());
+            }
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                continue;
+            }
+
+            boolean expected = String.valueOf(BigDecimal.valueOf(value)).equals(String.valueOf((float) value));
+            assertEquals(expected, FloatAttribute.fitsFloat(value), String.valueOf(value));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.bjansen.ssv.keywords;
+
+import com.github.fge.jsonschema.core.util.RegexECMA262Helper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EcmaRegexTest {
+
+    private static final String[] PATTERNS = {
+        "^[a-z]+$", "^\\d{3}-\\d{4}$", "^[A-Z]{2,3}$", "^\\w+@\\w+\\.\\w+$", "^x-", "abc", "^$", "a.c",
+        "^\\s*$", "\\S", "\\bfoo\\b", "\\Bar", "[\\b]", "^[^]$", "[]", "a{", "a{1,}", "x{2}", "}", "{}",
+        "[[a]", "[a&&b]", "[\\d-z]", "[\\w-]", "\\u00e9", "\\x41", "\\cJ", "\\0", "\\/", "\\-", "^(a)\\1$",
+        "^(?:ab)+$", "(?=a)a", "(?!b).", "^[^\\n]*$", "a|b", "^\\v$", "^\\t", "\\$", "^.$", "[.]", "^[0-9a-fA-F]+$",
+        "^\\d+(\\.\\d+)?$", "^\\p$", "\\e", "^.{0,3}$", "^[^a]$", "^\\S$", "^\\W{2}$", "^\\ud83d", "\\1", "(a)\\2",
+        "^(?:(a)|b)\\1$"
+    };
+
+    private static final String[] INPUTS = {
+        "", "a", "abc", "ABC", "Ab", "555-1234", "55-1234", "me@example.com", "x-custom", "y-custom", "foo", "foo bar",
+        "bar", "b", "\b", "a{", "a{1", "a{1,}", "xx", "}", "{}", "[", "&", "-", "z", "\u00e9", "e\u0301", "A", "\n",
+        "a\n", "\u0000", "/", "aa", "ab", "abab", "\u000b", "\t", "$", "\u2028", ".", "cafe", "3.14", "42", "p", "e",
+        "\u00a0\u2028\ufeff", "\u4e2d", "\ud83d\ude00", "\ud83d\ude00\ud83d\ude00", "a\ud83d\ude00", "\ud83d",
+        "\u0001", "a\u0002"
+    };
+
+    @Test
+    void should_behave_like_the_javascript_engine() {
+        for (String pattern : PATTERNS) {
+            EcmaRegex regex = EcmaRegex.of(pattern);
+
+            for (String input : INPUTS) {
+                assertEquals(RegexECMA262Helper.regMatch(pattern, input), regex.find(input),
+                    "/" + pattern + "/.test(\"" + input + "\")");
+            }
+        }
+    }
+
+    @Test
+    void should_translate_common_patterns() {
+        for (String pattern : new String[]{"^[a-z]+$", "^\\d{3}-\\d{4}$", "^x-", "^\\w+@\\w+\\.\\w+$", "\\bfoo\\b",
+            "^[^]$", "[\\w-]", "\\u00e9"}) {
+            assertTrue(EcmaRegex.of(pattern).isTranslated(), pattern);
+        }
+    }
+
+    @Test
+    void should_fall_back_to_the_javascript_engine() {
+        for (String pattern : new String[]{"\\01", "[\\1]", "\\k<name>", "\\1", "(a)\\2",
+            "^(?:(a)|b)\\1$"}) {
+            assertNull(EcmaRegex.translate(pattern), pattern);
+            assertFalse(EcmaRegex.of(pattern).isTranslated(), pattern);
+        }
+    }
+
+    @Test
+    void should_cache_compiled_patterns() {
+        assertSame(EcmaRegex.of("^[a-z]+$"), EcmaRegex.of("^[a-z]+$"));
+    }
+}